@@ -0,0 +1,42 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Détection des appels bloquants (profil Maven blockhound uniquement, déclaré dans META-INF/spring.factories) :
+ * tout appel bloquant sur un thread non bloquant (boucles Netty, Schedulers.parallel) lève BlockingOperationError,
+ * ce qui fait échouer la requête ou le test concerné. Les intégrations Reactor, Netty et Spring sont chargées
+ * automatiquement ; seules les exceptions propres à l'application sont déclarées ici.
+ */
+public class BlockHoundInstaller implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockHoundInstaller.class);
+    private static final AtomicBoolean installed = new AtomicBoolean();
+
+    @Override
+    public void initialize(ConfigurableApplicationContext applicationContext) {
+        // Une seule instrumentation par JVM (contexte parent et enfants, contextes de test successifs)
+        if (!installed.compareAndSet(false, true)) {
+            return;
+        }
+        // install() charge les intégrations déclarées (Reactor, Netty, Spring) avant celle-ci : ce sont elles qui
+        // désignent les threads non bloquants, sans lesquelles aucun appel ne serait détecté
+        BlockHound.install(builder -> builder
+                // Identifiants (tokens, produits, fichiers) : lecture de /dev/urandom, qui ne bloque pas en pratique
+                .allowBlockingCallsInside("java.util.UUID", "randomUUID")
+                .blockingMethodCallback(method -> {
+                    BlockingOperationError error = new BlockingOperationError(method);
+                    // Journalisé en plus d'être levé : l'erreur peut être absorbée par un onErrorResume
+                    log.error("Appel bloquant sur le thread {}", Thread.currentThread().getName(), error);
+                    throw error;
+                }));
+        log.info("BlockHound installé");
+    }
+}
@@ -0,0 +1,74 @@
+package com.ENSPY.Reseau.APIRest.benchmark;
+
+import com.ENSPY.Reseau.APIRest.model.OptimalPriceResult;
+import com.ENSPY.Reseau.APIRest.model.Produit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON des réponses (Produit, OptimalPriceResult) et lecture d'un Produit (création, import NDJSON),
+ * avec la configuration Jackson de Spring Boot (dates ISO-8601)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter produitWriter;
+    private ObjectReader produitReader;
+    private ObjectWriter resultWriter;
+    private Produit produit;
+    private OptimalPriceResult result;
+    private byte[] produitJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        produitWriter = objectMapper.writerFor(Produit.class);
+        produitReader = objectMapper.readerFor(Produit.class);
+        resultWriter = objectMapper.writerFor(OptimalPriceResult.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        produit = new Produit(UUID.randomUUID(), "Smartphone X200", now.minusMonths(8),
+                "Écran 6,5 pouces, 128 Go", 349.99, 210.0, 25.0, "Électronique", "Téléphone", 120,
+                UUID.randomUUID(), now.minusMonths(8), now);
+        result = new OptimalPriceResult(UUID.randomUUID(), produit.getId(), produit.getName(), 349.99, 312.5,
+                37500.0, 32.8, produit.getUserId(), now);
+        produitJson = produitWriter.writeValueAsBytes(produit);
+    }
+
+    @Benchmark
+    public byte[] writeProduit() throws IOException {
+        return produitWriter.writeValueAsBytes(produit);
+    }
+
+    @Benchmark
+    public Produit readProduit() throws IOException {
+        return produitReader.readValue(produitJson);
+    }
+
+    @Benchmark
+    public byte[] writeOptimalPriceResult() throws IOException {
+        return resultWriter.writeValueAsBytes(result);
+    }
+}
@@ -0,0 +1,162 @@
+package com.ENSPY.Reseau.APIRest.benchmark;
+
+import com.ENSPY.Reseau.APIRest.ml.DomainCatalogue;
+import com.ENSPY.Reseau.APIRest.ml.MLClient;
+import com.ENSPY.Reseau.APIRest.ml.PredictionBatcher;
+import com.ENSPY.Reseau.APIRest.ml.PredictionCache;
+import com.ENSPY.Reseau.APIRest.ml.RemotePricingModel;
+import com.ENSPY.Reseau.APIRest.model.OptimalPriceResult;
+import com.ENSPY.Reseau.APIRest.model.Produit;
+import com.ENSPY.Reseau.APIRest.model.User;
+import com.ENSPY.Reseau.APIRest.repository.OptimalPriceResultRepository;
+import com.ENSPY.Reseau.APIRest.repository.ProduitRepository;
+import com.ENSPY.Reseau.APIRest.service.AuthService;
+import com.ENSPY.Reseau.APIRest.service.PricingService;
+import com.ENSPY.Reseau.APIRest.service.ProduitService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.util.context.Context;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Requête POST /pricing/{productId} (PricingService.calculateOptimalPrice) de bout en bout : dépôts simulés
+ * en mémoire, service ML simulé par un serveur HTTP local. Prédiction servie par le cache, ou appel HTTP
+ * à chaque requête (coût de production différent à chaque appel). Le regroupement des prédictions est désactivé :
+ * avec un seul appelant, l'attente de la fenêtre (pricing.ml.batch.max-wait) masquerait tout le reste.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingServiceBenchmark {
+
+    private static final String DOMAINS = "{\"domaines_disponibles\":[\"Électronique\",\"Alimentation\",\"Textile\"]}";
+    private static final String PREDICTION = "{\"prixPredit\":312.5,\"statut\":\"success\"}";
+
+    private final UUID cachedProductId = UUID.randomUUID();
+    private final UUID uncachedProductId = UUID.randomUUID();
+    private final AtomicLong uncachedCalls = new AtomicLong();
+
+    private DisposableServer mlStub;
+    private PricingService pricingService;
+    private Produit cachedProduct;
+    private Context securityContext;
+
+    @Setup
+    public void setUp() {
+        mlStub = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/domains", (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just(DOMAINS), StandardCharsets.UTF_8))
+                        .post("/predict", (request, response) -> request.receive().then()
+                                .then(response.header("Content-Type", "application/json")
+                                        .sendString(Mono.just(PREDICTION), StandardCharsets.UTF_8).then())))
+                .bindNow();
+
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+        securityContext = ReactiveSecurityContextHolder.withAuthentication(
+                new UsernamePasswordAuthenticationToken(user, "", user.getAuthorities()));
+        cachedProduct = product(cachedProductId, user.getId(), 210.0);
+
+        ProduitRepository produitRepository = stub(ProduitRepository.class, (method, args) ->
+                method.equals("findById") && cachedProductId.equals(args[0]) ? Mono.just(cachedProduct)
+                        : method.equals("findById") ? Mono.fromSupplier(() -> product(uncachedProductId, user.getId(),
+                        200.0 + uncachedCalls.incrementAndGet() * 0.01))
+                        : null);
+        OptimalPriceResultRepository resultRepository = stub(OptimalPriceResultRepository.class, (method, args) ->
+                method.equals("save") ? Mono.just(args[0]) : null);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WebClient webClient = WebClient.builder().baseUrl("http://127.0.0.1:" + mlStub.port()).build();
+        MLClient mlClient = new MLClient(webClient, CircuitBreaker.ofDefaults("ml-service"),
+                Bulkhead.ofDefaults("ml-service"), meterRegistry, Duration.ofSeconds(6), false, Duration.ofMillis(500));
+        RemotePricingModel pricingModel = new RemotePricingModel(mlClient,
+                new PredictionCache(meterRegistry, 10_000, Duration.ofMinutes(30)),
+                new PredictionBatcher(mlClient, false, false, 32, Duration.ofMillis(10), 8, 4));
+        DomainCatalogue domainCatalogue = new DomainCatalogue(pricingModel, meterRegistry,
+                Duration.ofMinutes(10), Duration.ofMinutes(5));
+        domainCatalogue.refresh().block();
+
+        // Le principal du contexte de sécurité est un User : AuthService n'interroge ni la base ni son cache
+        AuthService authService = new AuthService(null, null, null, null);
+        ProduitService produitService = new ProduitService(produitRepository, authService, new ObjectMapper());
+        pricingService = new PricingService(resultRepository, produitRepository, produitService, authService,
+                domainCatalogue, pricingModel, meterRegistry);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mlStub.disposeNow();
+    }
+
+    @Benchmark
+    public OptimalPriceResult cachedPrediction() {
+        return pricingService.calculateOptimalPrice(cachedProductId).contextWrite(securityContext).block();
+    }
+
+    @Benchmark
+    public OptimalPriceResult remotePrediction() {
+        return pricingService.calculateOptimalPrice(uncachedProductId).contextWrite(securityContext).block();
+    }
+
+    private static Produit product(UUID id, UUID userId, double coutDeProduction) {
+        LocalDateTime launch = LocalDateTime.now().minusMonths(8);
+        return new Produit(id, "Smartphone X200", launch, null, 349.99, coutDeProduction, 25.0, "électronique",
+                "Téléphone", 120, userId, launch, launch);
+    }
+
+    /**
+     * Dépôt simulé : answer(méthode, arguments) donne la réponse, null pour une méthode non prise en charge
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repository, BiFunction<String, Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.getName().equals("equals") ? proxy == args[0]
+                                : method.getName().equals("hashCode") ? System.identityHashCode(proxy)
+                                : repository.getSimpleName() + " simulé";
+                    }
+                    Object result = answer.apply(method.getName(), args);
+                    if (result == null) {
+                        throw new UnsupportedOperationException(repository.getSimpleName() + "." + method.getName());
+                    }
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,81 @@
+package com.ENSPY.Reseau.APIRest.benchmark;
+
+import com.ENSPY.Reseau.APIRest.model.Produit;
+import com.ENSPY.Reseau.APIRest.tarification.ProductColumns;
+import com.ENSPY.Reseau.APIRest.tarification.TarificationStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formules de tarification (TarificationService) : lot de produits (mise en colonnes comprise ou non)
+ * et trajectoire d'un produit sur 36 mois, pour chaque stratégie
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TarificationBenchmark {
+
+    @Param({"ECREMAGE", "PENETRATION", "ALIGNEMENT"})
+    private TarificationStrategy strategy;
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private List<Produit> produits;
+    private LocalDateTime now;
+    private ProductColumns columns;
+    private double[] trajectory;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        now = LocalDateTime.now();
+        produits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Produit produit = new Produit();
+            produit.setId(UUID.randomUUID());
+            produit.setDateLancement(now.minusDays(random.nextInt(1000)));
+            produit.setPrixDesConcurrents(50 + random.nextDouble() * 950);
+            produit.setCoutDeProduction(10 + random.nextDouble() * 400);
+            produit.setStock(random.nextInt(500));
+            produits.add(produit);
+        }
+        columns = ProductColumns.of(produits, now, 6);
+        trajectory = new double[36];
+    }
+
+    @Benchmark
+    public double[] batch() {
+        return ProductColumns.of(produits, now, 6).prices(strategy, Double.NaN);
+    }
+
+    @Benchmark
+    public double[] batchPricesOnly() {
+        return columns.prices(strategy, Double.NaN);
+    }
+
+    @Benchmark
+    public double[] trajectory() {
+        strategy.trajectory(columns.months(0), 500, columns.coutDeProduction(0), Double.NaN, trajectory);
+        return trajectory;
+    }
+}
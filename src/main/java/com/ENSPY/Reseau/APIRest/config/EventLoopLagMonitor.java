@@ -0,0 +1,130 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.ReactorResourceFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retard des boucles d'événements Netty (serveur HTTP, client ML) : à chaque intervalle, une sonde est soumise
+ * à chaque boucle et le délai avant son exécution est exporté (reactor.netty.eventloop.lag{loop}, en secondes).
+ * Un retard supérieur au seuil trahit un traitement bloquant sur une boucle : il est journalisé en WARN et compté
+ * (reactor.netty.eventloop.lag.exceeded), base des alertes côté Prometheus.
+ */
+@Component
+public class EventLoopLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLoopLagMonitor.class);
+
+    private final ReactorResourceFactory resourceFactory;
+    private final MeterRegistry meterRegistry;
+    private final List<Probe> probes = new ArrayList<>();
+    private Disposable schedule;
+
+    @Value("${event-loop.lag.enabled:true}")
+    private boolean enabled;
+
+    @Value("${event-loop.lag.probe-interval:1s}")
+    private Duration probeInterval;
+
+    @Value("${event-loop.lag.warn-threshold:100ms}")
+    private Duration warnThreshold;
+
+    public EventLoopLagMonitor(ReactorResourceFactory resourceFactory, MeterRegistry meterRegistry) {
+        this.resourceFactory = resourceFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        // Même groupe que le serveur HTTP (ressources Reactor Netty partagées, transport natif si disponible)
+        int index = 0;
+        for (EventExecutor loop : resourceFactory.getLoopResources().onServer(LoopResources.DEFAULT_NATIVE)) {
+            Probe probe = new Probe(loop, String.valueOf(index++));
+            Gauge.builder("reactor.netty.eventloop.lag", probe, Probe::lagSeconds)
+                    .description("Délai d'exécution d'une tâche soumise à la boucle d'événements")
+                    .baseUnit("seconds")
+                    .tag("loop", probe.name)
+                    .register(meterRegistry);
+            probes.add(probe);
+        }
+        schedule = Flux.interval(probeInterval, probeInterval)
+                .onBackpressureDrop()
+                .subscribe(tick -> probes.forEach(Probe::send));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    private final class Probe {
+
+        private final EventExecutor loop;
+        private final String name;
+        private final Counter exceeded;
+        // Instant de soumission de la sonde en attente (System.nanoTime), 0 si aucune
+        private final AtomicLong sentAt = new AtomicLong();
+        private volatile long lastLag;
+
+        Probe(EventExecutor loop, String name) {
+            this.loop = loop;
+            this.name = name;
+            this.exceeded = Counter.builder("reactor.netty.eventloop.lag.exceeded")
+                    .description("Sondes exécutées au-delà du seuil event-loop.lag.warn-threshold")
+                    .tag("loop", name)
+                    .register(meterRegistry);
+        }
+
+        void send() {
+            // Sonde précédente pas encore exécutée : la boucle est bloquée, son âge est déjà exporté par lagSeconds
+            if (!sentAt.compareAndSet(0, System.nanoTime())) {
+                return;
+            }
+            try {
+                loop.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                // Boucle arrêtée (fermeture de l'application)
+                sentAt.set(0);
+            }
+        }
+
+        private void run() {
+            long lag = System.nanoTime() - sentAt.getAndSet(0);
+            lastLag = lag;
+            if (lag > warnThreshold.toNanos()) {
+                exceeded.increment();
+                log.warn("Boucle d'événements {} ({}) en retard de {} ms", name, Thread.currentThread().getName(),
+                        lag / 1_000_000);
+            }
+        }
+
+        double lagSeconds() {
+            long pending = sentAt.get();
+            long lag = pending == 0 ? lastLag : Math.max(lastLag, System.nanoTime() - pending);
+            return lag / 1e9;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ENSPY.Reseau.APIRest.config;
 
+import com.ENSPY.Reseau.APIRest.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
@@ -11,17 +13,22 @@ import reactor.core.publisher.Mono;
 public class JwtAuthenticationFilter implements WebFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, TokenRevocationService tokenRevocationService) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String token = resolveToken(exchange.getRequest().getHeaders().getFirst("Authorization"));
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
-            return jwtTokenProvider.getAuthentication(token)
+        // Le token n'est analysé et vérifié qu'une seule fois par requête
+        Claims claims = token != null ? jwtTokenProvider.parseClaims(token) : null;
+        // Révocation vérifiée en mémoire (filtre de Bloom + ensemble exact), sans requête en base
+        if (claims != null && !tokenRevocationService.isRevoked(claims)) {
+            return jwtTokenProvider.getAuthentication(claims)
                     .flatMap(auth -> chain.filter(exchange)
                             .contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth)));
         }
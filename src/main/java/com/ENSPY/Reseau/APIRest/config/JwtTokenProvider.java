@@ -1,18 +1,34 @@
 package com.ENSPY.Reseau.APIRest.config;
 
+import com.ENSPY.Reseau.APIRest.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
@@ -23,23 +39,60 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
     private SecretKey secretKey;
+    private JwtParser jwtParser;
+    private Cache<String, Claims> verifiedTokens;
 
     private final ReactiveUserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
 
-    public JwtTokenProvider(ReactiveUserDetailsService userDetailsService) {
+    public JwtTokenProvider(ReactiveUserDetailsService userDetailsService, MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
     protected void init() {
         String encodedSecret = Base64.getEncoder().encodeToString(jwtSecret.getBytes());
         secretKey = Keys.hmacShaKeyFor(encodedSecret.getBytes());
+        // Le parser est immuable et thread-safe : une seule instance pour toutes les requêtes
+        jwtParser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+        // Tokens déjà vérifiés (clé : empreinte SHA-256 du token), retirés à leur expiration
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
     }
 
     public String createToken(String username, String userId) {
         Claims claims = Jwts.claims().setSubject(username);
         claims.put("userId", userId);
+        claims.put("roles", List.of("USER"));
+        claims.setId(UUID.randomUUID().toString());
 
         Date now = new Date();
         Date validity = new Date(now.getTime() + jwtExpiration);
@@ -53,35 +106,81 @@ public class JwtTokenProvider {
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return requireClaims(token).getSubject();
     }
 
     public String getUserIdFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("userId", String.class);
+        return requireClaims(token).get("userId", String.class);
     }
 
     public Mono<Authentication> getAuthentication(String token) {
-        String username = getUsernameFromToken(token);
-        return userDetailsService.findByUsername(username)
+        return getAuthentication(parseClaims(token));
+    }
+
+    /**
+     * Construit l'authentification à partir de claims déjà vérifiés.
+     * En mode stateless, le principal est reconstruit depuis les claims (userId, email, rôles) sans accès à la base.
+     */
+    public Mono<Authentication> getAuthentication(Claims claims) {
+        String userId = claims.get("userId", String.class);
+        if (stateless && userId != null) {
+            User principal = new User();
+            principal.setId(UUID.fromString(userId));
+            principal.setEmail(claims.getSubject());
+            List<GrantedAuthority> authorities = new ArrayList<>(principal.getAuthorities());
+            if (claims.get("roles") instanceof Collection<?> roles) {
+                authorities.clear();
+                for (Object role : roles) {
+                    authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+                }
+            }
+            return Mono.just(new UsernamePasswordAuthenticationToken(principal, "", authorities));
+        }
+        return userDetailsService.findByUsername(claims.getSubject())
                 .map(userDetails -> new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities()));
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Vérifie la signature et l'expiration du token et retourne ses claims, ou null si le token est invalide
+     */
+    public Claims parseClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String tokenHash = hash(token);
+        Claims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            return cached.getExpiration().getTime() > System.currentTimeMillis() ? cached : null;
+        }
         try {
-            Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(tokenHash, claims);
+            }
+            return claims;
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
+        }
+    }
+
+    private Claims requireClaims(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            throw new JwtException("Token invalide ou expiré");
         }
+        return claims;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    public boolean validateToken(String token) {
+        return parseClaims(token) != null;
     }
 }
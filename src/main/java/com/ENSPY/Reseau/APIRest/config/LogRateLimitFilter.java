@@ -0,0 +1,64 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite le nombre de messages par logger et par seconde (déclaré dans logback-spring.xml) :
+ * au-delà de maxEventsPerSecond, les messages de niveau inférieur ou égal à level sont écartés
+ * avant toute mise en forme. Évite qu'une panne en cascade (service ML, base) ne sature les logs.
+ */
+public class LogRateLimitFilter extends TurboFilter {
+
+    private static final long MAX_COUNT = (1L << 20) - 1;
+
+    private final Map<String, AtomicLong> windows = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private int maxEventsPerSecond = 100;
+    private Level level = Level.WARN;
+
+    public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+        this.maxEventsPerSecond = (int) Math.min(maxEventsPerSecond, MAX_COUNT);
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.WARN);
+    }
+
+    /**
+     * Messages écartés depuis le démarrage
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level eventLevel, String format, Object[] params, Throwable t) {
+        // Appelé aussi pour les niveaux désactivés et les isXxxEnabled() (format null) : ils ne consomment pas le quota
+        if (!isStarted() || format == null || eventLevel == null || eventLevel.toInt() > level.toInt()
+                || eventLevel.toInt() < logger.getEffectiveLevel().toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        // Seconde courante (bits de poids fort) et nombre de messages dans cette seconde (20 bits de poids faible)
+        long second = System.currentTimeMillis() / 1000;
+        AtomicLong window = windows.computeIfAbsent(logger.getName(), name -> new AtomicLong());
+        while (true) {
+            long current = window.get();
+            long count = current >>> 20 == second ? current & MAX_COUNT : 0;
+            if (count >= maxEventsPerSecond) {
+                dropped.incrementAndGet();
+                return FilterReply.DENY;
+            }
+            if (window.compareAndSet(current, second << 20 | (count + 1))) {
+                return FilterReply.NEUTRAL;
+            }
+        }
+    }
+}
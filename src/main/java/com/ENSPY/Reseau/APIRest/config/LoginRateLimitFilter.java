@@ -0,0 +1,261 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.NetUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitation des tentatives de connexion (POST /auth/login) par IP puis par email, en mémoire,
+ * avant toute vérification BCrypt : au-delà du quota, réponse 429 avec Retry-After.
+ * L'IP est l'adresse distante de la requête ; lorsque celle-ci est un proxy de confiance
+ * (auth.login.rate-limit.trusted-proxies), c'est l'entrée de X-Forwarded-For ajoutée par le proxy : la plus
+ * à droite qui n'est pas elle-même un proxy de confiance. Les entrées plus à gauche, écrites par le client, sont ignorées.
+ */
+@Component
+public class LoginRateLimitFilter implements WebFilter {
+
+    private static final String LOGIN_PATH = "/auth/login";
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxBodySize;
+    private final Duration sweepInterval;
+    private final TokenBucketLimiter ipLimiter;
+    private final TokenBucketLimiter emailLimiter;
+    private final List<Subnet> trustedProxies;
+    private final Counter throttledByIp;
+    private final Counter throttledByEmail;
+    private Disposable backgroundSweep;
+
+    public LoginRateLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${auth.login.rate-limit.enabled:true}") boolean enabled,
+            @Value("${auth.login.rate-limit.per-ip:20}") int perIp,
+            @Value("${auth.login.rate-limit.per-email:5}") int perEmail,
+            @Value("${auth.login.rate-limit.period:1m}") Duration period,
+            @Value("${auth.login.rate-limit.sweep-interval:1s}") Duration sweepInterval,
+            @Value("${auth.login.rate-limit.max-body-size:4096}") int maxBodySize,
+            @Value("${auth.login.rate-limit.trusted-proxies:}") String[] trustedProxies) {
+        this.objectMapper = objectMapper;
+        this.trustedProxies = Arrays.stream(trustedProxies)
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(Subnet::parse)
+                .toList();
+        this.enabled = enabled;
+        this.maxBodySize = maxBodySize;
+        this.sweepInterval = sweepInterval;
+        this.ipLimiter = new TokenBucketLimiter(perIp, period.toNanos(), sweepInterval.toNanos());
+        this.emailLimiter = new TokenBucketLimiter(perEmail, period.toNanos(), sweepInterval.toNanos());
+        this.throttledByIp = Counter.builder("auth.login.throttled")
+                .description("Tentatives de connexion refusées par la limitation de débit")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        this.throttledByEmail = Counter.builder("auth.login.throttled")
+                .description("Tentatives de connexion refusées par la limitation de débit")
+                .tag("key", "email")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.rate-limit.buckets", this, filter -> filter.ipLimiter.size() + filter.emailLimiter.size())
+                .description("Seaux de limitation de débit actifs")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startBackgroundSweep() {
+        backgroundSweep = Flux.interval(sweepInterval)
+                .onBackpressureDrop()
+                .subscribe(tick -> {
+                    ipLimiter.sweep();
+                    emailLimiter.sweep();
+                });
+    }
+
+    @PreDestroy
+    void stopBackgroundSweep() {
+        if (backgroundSweep != null) {
+            backgroundSweep.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!enabled || request.getMethod() != HttpMethod.POST || !LOGIN_PATH.equals(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+
+        // Quota par IP vérifié sans lire le corps
+        long ipWait = ipLimiter.tryAcquire(clientIp(request));
+        if (ipWait > 0) {
+            throttledByIp.increment();
+            return tooManyRequests(exchange.getResponse(), ipWait);
+        }
+
+        return DataBufferUtils.join(request.getBody(), maxBodySize)
+                .map(buffer -> {
+                    byte[] body = new byte[buffer.readableByteCount()];
+                    buffer.read(body);
+                    DataBufferUtils.release(buffer);
+                    return body;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    String email = email(body);
+                    long emailWait = email != null ? emailLimiter.tryAcquire(email) : 0L;
+                    if (emailWait > 0) {
+                        throttledByEmail.increment();
+                        return tooManyRequests(exchange.getResponse(), emailWait);
+                    }
+                    // Le corps déjà lu est rejoué pour le contrôleur
+                    ServerHttpRequest replayed = new ServerHttpRequestDecorator(request) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+                        }
+                    };
+                    return chain.filter(exchange.mutate().request(replayed).build());
+                })
+                .onErrorResume(DataBufferLimitException.class, e -> {
+                    exchange.getResponse().setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return "unknown";
+        }
+        String peer = remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString();
+        if (!isTrustedProxy(peer)) {
+            return peer;
+        }
+        // Parcours de droite à gauche : chaque proxy de confiance ajoute l'adresse de son pair à la fin
+        List<String> forwardedFor = request.getHeaders().getOrEmpty(FORWARDED_FOR);
+        String client = peer;
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            String[] hops = forwardedFor.get(i).split(",");
+            for (int j = hops.length - 1; j >= 0; j--) {
+                String hop = hops[j].trim();
+                if (hop.isEmpty()) {
+                    continue;
+                }
+                if (!isTrustedProxy(hop)) {
+                    return hop;
+                }
+                client = hop;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        byte[] bytes = NetUtil.createByteArrayFromIpAddressString(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (Subnet subnet : trustedProxies) {
+            if (subnet.contains(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String email(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Mono<Void> tooManyRequests(ServerHttpResponse response, long waitNanos) {
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(
+                    Map.of("message", "Trop de tentatives de connexion, réessayez dans " + retryAfterSeconds + " s"));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (IOException e) {
+            return response.setComplete();
+        }
+    }
+
+    // Adresse IP ou plage CIDR (10.0.0.0/8, fd00::/8), comparée octet par octet sans résolution DNS
+    private record Subnet(byte[] address, int prefixLength) {
+
+        static Subnet parse(String value) {
+            int slash = value.indexOf('/');
+            String ip = slash >= 0 ? value.substring(0, slash) : value;
+            byte[] address = NetUtil.createByteArrayFromIpAddressString(ip);
+            if (address == null) {
+                throw new IllegalArgumentException("Proxy de confiance invalide: " + value);
+            }
+            int prefixLength = slash >= 0 ? Integer.parseInt(value.substring(slash + 1)) : address.length * 8;
+            if (prefixLength < 0 || prefixLength > address.length * 8) {
+                throw new IllegalArgumentException("Proxy de confiance invalide: " + value);
+            }
+            return new Subnet(address, prefixLength);
+        }
+
+        boolean contains(byte[] candidate) {
+            if (candidate.length != address.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (candidate[i] != address[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (candidate[fullBytes] & mask) == (address[fullBytes] & mask);
+        }
+    }
+}
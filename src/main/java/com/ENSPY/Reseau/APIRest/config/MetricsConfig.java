@@ -0,0 +1,41 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métriques du serveur Reactor Netty (reactor.netty.*) : connexions, octets échangés et tâches en attente
+ * sur les boucles d'événements. Les latences par route sont mesurées par http.server.requests (actuator).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public NettyServerCustomizer nettyServerMetrics() {
+        // Tag uri constant : les chemins bruts (identifiants) feraient exploser le nombre de séries
+        return httpServer -> httpServer.metrics(true, uri -> "/");
+    }
+
+    /**
+     * Messages écartés par la limitation de débit des logs (LogRateLimitFilter, logback-spring.xml)
+     */
+    @Bean
+    public MeterBinder droppedLogEventsMetrics() {
+        return registry -> {
+            if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext)) {
+                return;
+            }
+            loggerContext.getTurboFilterList().stream()
+                    .filter(LogRateLimitFilter.class::isInstance)
+                    .map(LogRateLimitFilter.class::cast)
+                    .forEach(filter -> FunctionCounter.builder("logging.events.dropped", filter, LogRateLimitFilter::getDropped)
+                            .description("Messages de log écartés par la limitation de débit")
+                            .register(registry));
+        };
+    }
+}
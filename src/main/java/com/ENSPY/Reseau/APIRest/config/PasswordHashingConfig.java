@@ -0,0 +1,99 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hachage des mots de passe (BCrypt, ~100 ms de CPU par opération) hors des threads Netty :
+ * pool dédié de taille fixe avec file d'attente bornée ; au-delà, la demande est rejetée
+ * plutôt que de retarder toutes les autres requêtes.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingConfig.class);
+
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 14;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int strength;
+
+    @Value("${auth.bcrypt.target-duration:0ms}")
+    private Duration targetDuration;
+
+    @Value("${auth.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.password-hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    /**
+     * Encodeur BCrypt. Si auth.bcrypt.target-duration est positif, le coût est calibré au démarrage :
+     * le plus élevé (entre 10 et 14) dont un hachage tient dans la durée cible sur cette machine.
+     * Les hachages d'un coût inférieur sont mis à niveau à la connexion suivante.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        int effectiveStrength = targetDuration.isZero() ? strength : calibrateStrength(targetDuration);
+        log.info("Coût BCrypt: {}", effectiveStrength);
+        return new BCryptPasswordEncoder(effectiveStrength);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler passwordHashingScheduler(MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        Counter rejections = Counter.builder("auth.password.hashing.rejected")
+                .description("Hachages de mot de passe rejetés (file d'attente pleine)")
+                .register(meterRegistry);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory,
+                (runnable, pool) -> {
+                    rejections.increment();
+                    throw new RejectedExecutionException("Trop de demandes d'authentification simultanées");
+                });
+        return Schedulers.fromExecutorService(
+                ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing"), "password-hashing");
+    }
+
+    private int calibrateStrength(Duration target) {
+        // Premier hachage hors mesure (chargement des classes, compilation JIT)
+        new BCryptPasswordEncoder(MIN_STRENGTH).encode("calibration");
+        int calibrated = MIN_STRENGTH;
+        for (int candidate = MIN_STRENGTH; candidate <= MAX_STRENGTH; candidate++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(candidate);
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            long elapsedNanos = System.nanoTime() - start;
+            if (elapsedNanos > target.toNanos()) {
+                break;
+            }
+            calibrated = candidate;
+        }
+        return calibrated;
+    }
+}
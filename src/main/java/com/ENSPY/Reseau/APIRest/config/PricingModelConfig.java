@@ -0,0 +1,49 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import com.ENSPY.Reseau.APIRest.ml.LocalPricingModel;
+import com.ENSPY.Reseau.APIRest.ml.PricingModel;
+import com.ENSPY.Reseau.APIRest.ml.RemotePricingModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+
+@Configuration
+public class PricingModelConfig {
+
+    @Value("${pricing.model.type:remote}")
+    private String modelType;
+
+    @Value("${pricing.model.local.path:file:models/pricing-model.json}")
+    private String localModelPath;
+
+    @Value("${pricing.model.local.fallback-to-remote:true}")
+    private boolean fallbackToRemote;
+
+    /**
+     * Modèle utilisé par PricingService : service Flask distant ou modèle local évalué dans le processus
+     */
+    @Bean
+    @Primary
+    public PricingModel pricingModel(RemotePricingModel remotePricingModel,
+                                     ResourceLoader resourceLoader,
+                                     ObjectMapper objectMapper) throws IOException {
+        switch (modelType.toLowerCase()) {
+            case "remote":
+                return remotePricingModel;
+            case "local":
+                Resource resource = resourceLoader.getResource(localModelPath);
+                if (!resource.exists()) {
+                    throw new IllegalStateException("Modèle local introuvable: " + localModelPath);
+                }
+                return LocalPricingModel.load(resource, objectMapper, fallbackToRemote ? remotePricingModel : null);
+            default:
+                throw new IllegalStateException("pricing.model.type inconnu: " + modelType + " (remote ou local)");
+        }
+    }
+}
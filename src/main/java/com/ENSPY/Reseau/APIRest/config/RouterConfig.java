@@ -28,19 +28,29 @@ public class RouterConfig {
             AuthController authController) {
         return route()
                 .GET("/", req -> homeController.home())
+                .POST("/pricing/batch", pricingController::calculateOptimalPrices)
                 .POST("/pricing/{productId}", req -> pricingController.calculateOptimalPrice(UUID.fromString(req.pathVariable("productId"))))
-                .GET("/pricing/history", req -> pricingController.getPricingHistory())
+                .GET("/pricing/history", pricingController::getPricingHistory)
+                .GET("/pricing/export", pricingController::exportPricingHistory)
                 .POST("/tarification/ecremage/{prixMax}/{productId}", req -> tarificationController.calculateDecremageTarificationPrice(UUID.fromString(req.pathVariable("productId")), Integer.parseInt(req.pathVariable("prixMax"))))
                 .POST("/tarification/alignement/{productId}", req -> tarificationController.calculateAlignementTarificationPrice(UUID.fromString(req.pathVariable("productId"))))
                 .POST("/tarification/penetration/{prixMin}/{productId}", req -> tarificationController.calculatePenetrationTarificationPrice(UUID.fromString(req.pathVariable("productId")), Integer.parseInt(req.pathVariable("prixMin"))))
-                .GET("/tarification/history", req -> tarificationController.getPricingHistory())
-                .GET("/produit/read", rep -> produitController.getAllProducts())
+                .POST("/tarification/bulk/{strategie}", req -> tarificationController.calculateTarificationPrices(req.pathVariable("strategie"), req))
+                .POST("/tarification/future/{strategie}/{monthsInFuture}/{productId}", req -> tarificationController.calculateFuturePricing(UUID.fromString(req.pathVariable("productId")), req.pathVariable("strategie"), Integer.parseInt(req.pathVariable("monthsInFuture")), req))
+                .GET("/tarification/future/stream", tarificationController::streamFuturePricing)
+                .GET("/tarification/trajectory/{productId}", req -> tarificationController.calculateTrajectory(UUID.fromString(req.pathVariable("productId")), req))
+                .GET("/tarification/history", tarificationController::getPricingHistory)
+                .GET("/tarification/export", tarificationController::exportPricingHistory)
+                .GET("/produit/read", produitController::getAllProducts)
+                .GET("/produit/export", produitController::exportProducts)
                 .GET("/produit/read/{id}", req -> produitController.getProductById(UUID.fromString(req.pathVariable("id"))))
                 .POST("/produit/create", req -> req.bodyToMono(Produit.class).flatMap(produitController::createProduct))
+                .POST("/produit/import", produitController::importProducts)
                 .PUT("/produit/update/{id}", req -> req.bodyToMono(Produit.class).flatMap(produit -> produitController.updateProduct(UUID.fromString(req.pathVariable("id")), produit)))
                 .DELETE("/produit/delete/{id}", req -> produitController.deleteProduct(UUID.fromString(req.pathVariable("id"))))
                 .POST("/auth/login", authController::login)
                 .POST("/auth/register", authController::register)
+                .POST("/auth/logout", authController::logout)
                 .PUT("/auth/update/{id}", req -> authController.updateUser(UUID.fromString(req.pathVariable("id")), req))
                 .POST("/auth/upload-profile-picture/{id}", req -> authController.uploadProfilePicture(UUID.fromString(req.pathVariable("id")), req))
                 .DELETE("/auth/delete/{id}", req -> authController.deleteUser(UUID.fromString(req.pathVariable("id"))))
@@ -0,0 +1,176 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Migrations versionnées du schéma (remplace l'initialisation par schema.sql) : les scripts
+ * db/migration/V{version}__{description}.sql sont appliqués une seule fois, dans l'ordre des versions,
+ * chacun dans sa transaction, et enregistrés dans schema_migrations avec leur somme de contrôle.
+ * Un verrou consultatif PostgreSQL empêche deux instances de migrer en même temps.
+ * Au démarrage, les clés étrangères sans index (colonne en tête d'un index) sont signalées dans les logs.
+ */
+@Component
+public class SchemaMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final long ADVISORY_LOCK_ID = 4_711_018L;
+
+    private static final String CREATE_HISTORY = """
+            CREATE TABLE IF NOT EXISTS schema_migrations (
+                version INTEGER PRIMARY KEY,
+                description VARCHAR(255) NOT NULL,
+                checksum BIGINT NOT NULL,
+                execution_ms BIGINT NOT NULL,
+                applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""";
+
+    private static final String UNINDEXED_FOREIGN_KEYS = """
+            SELECT c.conrelid::regclass::text AS table_name, a.attname AS column_name, c.conname AS constraint_name
+            FROM pg_constraint c
+            JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+            WHERE c.contype = 'f'
+              AND NOT EXISTS (SELECT 1 FROM pg_index i WHERE i.indrelid = c.conrelid AND i.indkey[0] = c.conkey[1])
+            ORDER BY 1, 2""";
+
+    private final ConnectionFactory connectionFactory;
+
+    @Value("${schema.migrations.enabled:true}")
+    private boolean enabled;
+
+    @Value("${schema.migrations.locations:classpath:db/migration/V*__*.sql}")
+    private String locations;
+
+    @Value("${schema.migrations.timeout:5m}")
+    private Duration timeout;
+
+    public SchemaMigrator(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Exécuté pendant le démarrage du contexte, avant que l'application ne serve des requêtes
+     */
+    @PostConstruct
+    void migrate() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<Script> scripts = loadScripts();
+        Mono.usingWhen(Mono.from(connectionFactory.create()),
+                        connection -> {
+                            // Connexion issue du pool : le verrou doit être libéré explicitement, même en cas d'échec
+                            Mono<Void> unlock = execute(connection, "SELECT pg_advisory_unlock(" + ADVISORY_LOCK_ID + ")");
+                            return execute(connection, "SELECT pg_advisory_lock(" + ADVISORY_LOCK_ID + ")")
+                                    .then(execute(connection, CREATE_HISTORY))
+                                    .then(appliedChecksums(connection))
+                                    .flatMapMany(applied -> Flux.fromIterable(scripts)
+                                            .concatMap(script -> apply(connection, script, applied)))
+                                    .then(logUnindexedForeignKeys(connection))
+                                    .then(unlock)
+                                    .onErrorResume(e -> unlock.onErrorResume(unlockError -> Mono.empty())
+                                            .then(Mono.error(e)));
+                        },
+                        Connection::close)
+                .block(timeout);
+    }
+
+    private Mono<Void> apply(Connection connection, Script script, Map<Integer, Long> applied) {
+        Long checksum = applied.get(script.version());
+        if (checksum != null) {
+            if (checksum != script.checksum()) {
+                return Mono.error(new IllegalStateException("La migration V" + script.version()
+                        + " a été modifiée après son application (somme de contrôle différente)"));
+            }
+            return Mono.empty();
+        }
+        long start = System.currentTimeMillis();
+        return Mono.from(connection.beginTransaction())
+                .then(execute(connection, script.sql()))
+                .then(Mono.defer(() -> Flux.from(connection.createStatement(
+                                "INSERT INTO schema_migrations (version, description, checksum, execution_ms) VALUES ($1, $2, $3, $4)")
+                        .bind(0, script.version())
+                        .bind(1, script.description())
+                        .bind(2, script.checksum())
+                        .bind(3, System.currentTimeMillis() - start)
+                        .execute())
+                        .flatMap(Result::getRowsUpdated)
+                        .then()))
+                .then(Mono.from(connection.commitTransaction()))
+                .doOnSuccess(done -> log.info("Migration V{} ({}) appliquée en {} ms",
+                        script.version(), script.description(), System.currentTimeMillis() - start))
+                .onErrorResume(e -> Mono.from(connection.rollbackTransaction())
+                        .then(Mono.error(new IllegalStateException("Échec de la migration V" + script.version()
+                                + " (" + script.description() + "): " + e.getMessage(), e))));
+    }
+
+    private Mono<Map<Integer, Long>> appliedChecksums(Connection connection) {
+        return Flux.from(connection.createStatement("SELECT version, checksum FROM schema_migrations").execute())
+                .flatMap(result -> result.map((row, metadata) ->
+                        Map.entry(row.get("version", Integer.class), row.get("checksum", Long.class))))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, HashMap::new);
+    }
+
+    private Mono<Void> logUnindexedForeignKeys(Connection connection) {
+        return Flux.from(connection.createStatement(UNINDEXED_FOREIGN_KEYS).execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get("table_name", String.class) + "."
+                        + row.get("column_name", String.class) + " (" + row.get("constraint_name", String.class) + ")"))
+                .doOnNext(foreignKey -> log.warn("Clé étrangère sans index: {}", foreignKey))
+                .then();
+    }
+
+    // Script sans paramètre : protocole de requête simple, plusieurs instructions autorisées
+    private static Mono<Void> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(Result::getRowsUpdated)
+                .then();
+    }
+
+    private List<Script> loadScripts() throws IOException {
+        List<Script> scripts = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locations)) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename() != null ? resource.getFilename() : "");
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Nom de migration invalide: " + resource.getFilename());
+            }
+            String sql = resource.getContentAsString(StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(sql.getBytes(StandardCharsets.UTF_8));
+            scripts.add(new Script(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), sql, crc.getValue()));
+        }
+        scripts.sort(Comparator.comparingInt(Script::version));
+        for (int i = 1; i < scripts.size(); i++) {
+            if (scripts.get(i).version() == scripts.get(i - 1).version()) {
+                throw new IllegalStateException("Version de migration en double: V" + scripts.get(i).version());
+            }
+        }
+        return scripts;
+    }
+
+    private record Script(int version, String description, String sql, long checksum) {
+    }
+}
@@ -1,41 +1,95 @@
 package com.ENSPY.Reseau.APIRest.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 import org.springframework.web.cors.CorsConfiguration;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
 
 @Configuration
 public class SecurityConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Value("${metrics.auth.username:prometheus}")
+    private String metricsUsername;
+
+    @Value("${metrics.auth.password:}")
+    private String metricsPassword;
 
     @Bean
     @Lazy
     public ReactiveAuthenticationManager authenticationManager(
             @Lazy ReactiveUserDetailsService userDetailsService,
-            PasswordEncoder passwordEncoder) {
+            @Lazy ReactiveUserDetailsPasswordService userDetailsPasswordService,
+            PasswordEncoder passwordEncoder,
+            @Qualifier("passwordHashingScheduler") Scheduler passwordHashingScheduler) {
         UserDetailsRepositoryReactiveAuthenticationManager authManager =
                 new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
         authManager.setPasswordEncoder(passwordEncoder);
+        // Vérification BCrypt (et mise à niveau du coût) sur le pool dédié au hachage
+        authManager.setScheduler(passwordHashingScheduler);
+        authManager.setUserDetailsPasswordService(userDetailsPasswordService);
         return authManager;
     }
 
+    /**
+     * Endpoints actuator, séparés de l'authentification des utilisateurs : /actuator/health est public,
+     * les autres (dont /actuator/prometheus) exigent l'utilisateur de supervision en authentification basique.
+     * Sans mot de passe configuré (metrics.auth.password), ils sont refusés.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityWebFilterChain actuatorSecurityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .httpBasic(basic -> basic.authenticationManager(metricsAuthenticationManager()))
+                .authorizeExchange(exchanges -> exchanges
+                        .matchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyExchange().hasRole("METRICS")
+                )
+                .build();
+    }
+
+    // Comparaison en temps constant, sans BCrypt : le scraping Prometheus est fréquent
+    private ReactiveAuthenticationManager metricsAuthenticationManager() {
+        byte[] expectedPassword = metricsPassword.getBytes(StandardCharsets.UTF_8);
+        return authentication -> {
+            byte[] presentedPassword = String.valueOf(authentication.getCredentials()).getBytes(StandardCharsets.UTF_8);
+            if (expectedPassword.length == 0
+                    || !metricsUsername.equals(authentication.getName())
+                    || !MessageDigest.isEqual(expectedPassword, presentedPassword)) {
+                return Mono.error(new BadCredentialsException("Identifiants de supervision invalides"));
+            }
+            return Mono.just(UsernamePasswordAuthenticationToken.authenticated(
+                    metricsUsername, null, AuthorityUtils.createAuthorityList("ROLE_METRICS")));
+        };
+    }
+
     @Bean
     public SecurityWebFilterChain securityWebFilterChain(
             ServerHttpSecurity http,
@@ -58,6 +112,9 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
+        // En-têtes de réponse lisibles par le frontend : curseur de la page suivante (voir PageResponses)
+        // et durées par étape (ServerTimingFilter)
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "Server-Timing"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -0,0 +1,67 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Durées des étapes d'une requête échantillonnée, renvoyées dans l'en-tête Server-Timing.
+ * L'instance est placée dans le contexte Reactor par ServerTimingFilter ; hors échantillon,
+ * stage() ne fait que lire le contexte.
+ */
+public final class ServerTiming {
+
+    static final String CONTEXT_KEY = ServerTiming.class.getName();
+
+    private final long startNanos;
+    // étape -> {durée cumulée (ns), nombre d'occurrences}, dans l'ordre d'apparition
+    private final Map<String, long[]> stages = new LinkedHashMap<>();
+
+    ServerTiming(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Mesure l'étape (de l'abonnement au résultat) si la requête en cours est échantillonnée
+     */
+    public static <T> Mono<T> stage(String name, Mono<T> mono) {
+        return Mono.deferContextual(context -> {
+            ServerTiming timing = context.getOrDefault(CONTEXT_KEY, null);
+            if (timing == null) {
+                return mono;
+            }
+            long start = System.nanoTime();
+            return mono
+                    .doOnSuccess(value -> timing.add(name, System.nanoTime() - start))
+                    .doOnError(e -> timing.add(name, System.nanoTime() - start));
+        });
+    }
+
+    synchronized void add(String name, long nanos) {
+        long[] stage = stages.computeIfAbsent(name, key -> new long[2]);
+        stage[0] += nanos;
+        stage[1]++;
+    }
+
+    /**
+     * Valeur de l'en-tête, par exemple : product;dur=3.1, predict;dur=120.4, save;dur=5.0;desc="x2", total;dur=131.2
+     */
+    synchronized String header() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, long[]> stage : stages.entrySet()) {
+            append(header, stage.getKey(), stage.getValue()[0]);
+            if (stage.getValue()[1] > 1) {
+                header.append(";desc=\"x").append(stage.getValue()[1]).append('"');
+            }
+            header.append(", ");
+        }
+        append(header, "total", System.nanoTime() - startNanos);
+        return header.toString();
+    }
+
+    private static void append(StringBuilder header, String name, long nanos) {
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0));
+    }
+}
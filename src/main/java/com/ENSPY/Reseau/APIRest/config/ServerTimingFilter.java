@@ -0,0 +1,53 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * En-tête Server-Timing (durées par étape, voir ServerTiming) sur une fraction des requêtes,
+ * ou sur demande du client (en-tête X-Server-Timing). Les autres requêtes ne paient qu'un tirage aléatoire.
+ * Le frontend étant sur une autre origine, l'en-tête est exposé par CORS et Timing-Allow-Origin lui ouvre
+ * les durées de l'API Resource Timing du navigateur.
+ */
+@Component
+public class ServerTimingFilter implements WebFilter {
+
+    private static final String REQUEST_HEADER = "X-Server-Timing";
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final String timingAllowOrigin;
+
+    public ServerTimingFilter(
+            @Value("${server-timing.enabled:true}") boolean enabled,
+            @Value("${server-timing.sample-rate:0.01}") double sampleRate,
+            @Value("${server-timing.timing-allow-origin:}") String timingAllowOrigin) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.timingAllowOrigin = timingAllowOrigin;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || (!exchange.getRequest().getHeaders().containsKey(REQUEST_HEADER)
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return chain.filter(exchange);
+        }
+        ServerTiming timing = new ServerTiming(System.nanoTime());
+        exchange.getResponse().beforeCommit(() -> {
+            exchange.getResponse().getHeaders().add("Server-Timing", timing.header());
+            if (!timingAllowOrigin.isEmpty()) {
+                exchange.getResponse().getHeaders().set("Timing-Allow-Origin", timingAllowOrigin);
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(ServerTiming.CONTEXT_KEY, timing));
+    }
+}
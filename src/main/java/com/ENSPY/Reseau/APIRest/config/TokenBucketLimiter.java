@@ -0,0 +1,109 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seaux à jetons par clé (IP, email...) en mémoire, sans verrou : l'état d'un seau tient dans un seul long
+ * (instant théorique d'arrivée, algorithme GCRA équivalent à un seau de capacity jetons rechargé en period)
+ * mis à jour par compare-and-set. Les seaux redevenus pleins sont retirés par une roue temporelle
+ * que sweep() fait avancer d'une case à chaque appel.
+ */
+final class TokenBucketLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final long tickNanos;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Set<String>[] wheel;
+    private long wheelPosition;
+
+    @SuppressWarnings("unchecked")
+    TokenBucketLimiter(int capacity, long periodNanos, long tickNanos) {
+        this.emissionIntervalNanos = periodNanos / capacity;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.tickNanos = tickNanos;
+        int slots = (int) (periodNanos / tickNanos) + 2;
+        this.wheel = new Set[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.wheelPosition = System.nanoTime() / tickNanos;
+    }
+
+    /**
+     * Consomme un jeton pour la clé ; retourne 0 si la demande est acceptée,
+     * sinon le délai (en nanosecondes) avant qu'un jeton soit disponible
+     */
+    long tryAcquire(String key) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(now));
+        while (true) {
+            long tat = bucket.theoreticalArrival.get();
+            long start = Math.max(tat, now);
+            long newTat = start + emissionIntervalNanos;
+            long waitNanos = start - now - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.theoreticalArrival.compareAndSet(tat, newTat)) {
+                schedule(key, bucket, newTat);
+                return 0L;
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Avance la roue jusqu'à maintenant et retire les seaux de nouveau pleins ;
+     * à appeler toutes les tickNanos depuis un seul thread
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        long target = now / tickNanos;
+        while (wheelPosition <= target) {
+            Set<String> slot = wheel[(int) Math.floorMod(wheelPosition, (long) wheel.length)];
+            List<String> keys = new ArrayList<>(slot);
+            slot.removeAll(keys);
+            for (String key : keys) {
+                Bucket bucket = buckets.get(key);
+                if (bucket == null) {
+                    continue;
+                }
+                long tat = bucket.theoreticalArrival.get();
+                if (tat <= now) {
+                    buckets.remove(key, bucket);
+                } else {
+                    bucket.scheduledTick = Long.MIN_VALUE;
+                    schedule(key, bucket, tat);
+                }
+            }
+            wheelPosition++;
+        }
+    }
+
+    // Le seau est plein (donc supprimable) à partir de l'instant théorique d'arrivée
+    private void schedule(String key, Bucket bucket, long fullAtNanos) {
+        long tick = Math.min(fullAtNanos / tickNanos + 1, System.nanoTime() / tickNanos + wheel.length - 1);
+        if (bucket.scheduledTick != tick) {
+            bucket.scheduledTick = tick;
+            wheel[(int) Math.floorMod(tick, (long) wheel.length)].add(key);
+        }
+    }
+
+    private static final class Bucket {
+        private final AtomicLong theoreticalArrival;
+        private volatile long scheduledTick = Long.MIN_VALUE;
+
+        private Bucket(long now) {
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @Controller
 public class AuthController {
@@ -35,11 +36,20 @@ public class AuthController {
                     String password = (String) loginRequest.get("password");
                     return authService.login(email, password)
                             .flatMap(response -> ServerResponse.ok().bodyValue(response))
+                            .onErrorResume(RejectedExecutionException.class, this::busy)
                             .onErrorResume(e -> ServerResponse.status(HttpStatus.UNAUTHORIZED)
                                     .bodyValue(Map.of("message", e.getMessage())));
                 });
     }
 
+    public Mono<ServerResponse> logout(ServerRequest request) {
+        String bearerToken = request.headers().firstHeader("Authorization");
+        String token = bearerToken != null && bearerToken.startsWith("Bearer ") ? bearerToken.substring(7) : null;
+        return authService.logout(token)
+                .then(ServerResponse.ok().bodyValue(Map.of("message", "Déconnexion réussie")))
+                .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
+    }
+
     public Mono<ServerResponse> register(ServerRequest request) {
         return request.bodyToMono(User.class)
                 .flatMap(user -> {
@@ -56,6 +66,7 @@ public class AuthController {
                                 response.put("profilePicture", newUser.getProfilePicture());
                                 return ServerResponse.status(HttpStatus.CREATED).bodyValue(response);
                             })
+                            .onErrorResume(RejectedExecutionException.class, this::busy)
                             .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
                 });
     }
@@ -74,6 +85,7 @@ public class AuthController {
                             response.put("profilePicture", updatedUser.getProfilePicture());
                             return ServerResponse.ok().bodyValue(response);
                         })
+                        .onErrorResume(RejectedExecutionException.class, this::busy)
                         .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage()))));
     }
 
@@ -110,4 +122,11 @@ public class AuthController {
                 .then(ServerResponse.ok().bodyValue(Map.of("message", "Utilisateur supprimé avec succès")))
                 .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
     }
+
+    // Pool de hachage des mots de passe saturé : le client peut réessayer
+    private Mono<ServerResponse> busy(RejectedExecutionException e) {
+        return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .bodyValue(Map.of("message", "Service d'authentification surchargé, réessayez plus tard"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.ENSPY.Reseau.APIRest.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Exports en flux (CSV ou NDJSON selon ?format= ou l'en-tête Accept) : chaque ligne lue en base est encodée
+ * puis regroupée avec ses voisines dans un même DataBuffer, sans jamais conserver l'ensemble des lignes.
+ * La compression gzip est celle du serveur (server.compression), à la demande du client (Accept-Encoding).
+ */
+final class Exports {
+
+    static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final int ROWS_PER_BUFFER = 256;
+
+    // Premiers caractères interprétés comme une formule par les tableurs
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private Exports() {
+    }
+
+    record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    /**
+     * Vrai pour un export CSV, faux pour NDJSON ; IllegalArgumentException si ?format= est inconnu
+     */
+    static boolean csv(ServerRequest request) {
+        String format = request.queryParam("format").orElse(null);
+        if (format == null) {
+            return request.headers().accept().stream().anyMatch(TEXT_CSV::equalsTypeAndSubtype);
+        }
+        if (!format.equals("csv") && !format.equals("ndjson")) {
+            throw new IllegalArgumentException("format doit valoir csv ou ndjson");
+        }
+        return format.equals("csv");
+    }
+
+    static <T> Mono<ServerResponse> csv(String fileName, Flux<T> rows, List<Column<T>> columns) {
+        String header = String.join(",", columns.stream().map(Column::name).toList()) + "\n";
+        Flux<byte[]> lines = rows.map(row -> {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendCsvValue(line, columns.get(i).value().apply(row));
+            }
+            return line.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        });
+        return respond(fileName + ".csv", TEXT_CSV,
+                Flux.concat(Mono.just(header.getBytes(StandardCharsets.UTF_8)), lines));
+    }
+
+    static <T> Mono<ServerResponse> ndjson(String fileName, Flux<T> rows, ObjectWriter writer) {
+        Flux<byte[]> lines = rows.map(row -> {
+            try {
+                byte[] json = writer.writeValueAsBytes(row);
+                byte[] line = new byte[json.length + 1];
+                System.arraycopy(json, 0, line, 0, json.length);
+                line[json.length] = '\n';
+                return line;
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return respond(fileName + ".ndjson", MediaType.APPLICATION_NDJSON, lines);
+    }
+
+    private static Mono<ServerResponse> respond(String fileName, MediaType contentType, Flux<byte[]> lines) {
+        // Plusieurs lignes par DataBuffer : moins d'écritures réseau qu'une écriture par ligne
+        Flux<DataBuffer> body = lines
+                .buffer(ROWS_PER_BUFFER)
+                .map(chunk -> {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(chunk.size() * 128);
+                    chunk.forEach(bytes::writeBytes);
+                    return DefaultDataBufferFactory.sharedInstance.wrap(bytes.toByteArray());
+                });
+        return ServerResponse.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(BodyInserters.fromDataBuffers(body));
+    }
+
+    private static void appendCsvValue(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        // Texte pris pour une formule à l'ouverture dans un tableur : préfixé d'une apostrophe (retirée à l'import).
+        // Les nombres ne sont pas concernés, un montant négatif reste lisible.
+        if (value instanceof CharSequence && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,70 @@
+package com.ENSPY.Reseau.APIRest.controller;
+
+import com.ENSPY.Reseau.APIRest.dto.HistoryFilter;
+import com.ENSPY.Reseau.APIRest.dto.HistoryPage;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Réponses paginées : le corps reste un tableau JSON et le curseur de la page suivante
+ * est renvoyé dans l'en-tête X-Next-Cursor (absent sur la dernière page, exposé par CORS).
+ * Sans ?limit=, seule la première page est renvoyée : le client suit le curseur pour lire la suite.
+ */
+final class PageResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {
+    }
+
+    /**
+     * Filtre d'historique depuis ?limit=&cursor=&productId=&from=&to=&view=latest
+     * (from/to : date ISO, to inclusif, ou date-heure ISO, to exclusif)
+     */
+    static HistoryFilter historyFilter(ServerRequest request, int defaultLimit) {
+        HistoryFilter filter = new HistoryFilter();
+        try {
+            filter.setLimit(request.queryParam("limit").map(Integer::parseInt).orElse(defaultLimit));
+            filter.setCursor(request.queryParam("cursor").orElse(null));
+            filter.setProductId(request.queryParam("productId").map(UUID::fromString).orElse(null));
+            filter.setFrom(request.queryParam("from").map(value -> dateTime(value, false)).orElse(null));
+            filter.setTo(request.queryParam("to").map(value -> dateTime(value, true)).orElse(null));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Date invalide: " + e.getMessage());
+        }
+        String view = request.queryParam("view").orElse("all");
+        if (!view.equals("all") && !view.equals("latest")) {
+            throw new IllegalArgumentException("view doit valoir all ou latest");
+        }
+        filter.setLatest(view.equals("latest"));
+        return filter;
+    }
+
+    static <T> Mono<ServerResponse> page(Mono<HistoryPage<T>> page) {
+        return page
+                .flatMap(result -> {
+                    ServerResponse.BodyBuilder response = ServerResponse.ok();
+                    if (result.getNextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, result.getNextCursor());
+                    }
+                    return response.bodyValue(result.getResults());
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest()
+                        .bodyValue(Map.of("message", e.getMessage())));
+    }
+
+    private static LocalDateTime dateTime(String value, boolean endOfRange) {
+        if (value.length() == 10) {
+            LocalDate date = LocalDate.parse(value);
+            return endOfRange ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+        }
+        return LocalDateTime.parse(value);
+    }
+}
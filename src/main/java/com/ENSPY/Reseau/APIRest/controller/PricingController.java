@@ -1,21 +1,46 @@
 package com.ENSPY.Reseau.APIRest.controller;
 
+import com.ENSPY.Reseau.APIRest.dto.HistoryFilter;
+import com.ENSPY.Reseau.APIRest.dto.PricingBatchItem;
+import com.ENSPY.Reseau.APIRest.dto.PricingBatchRequest;
 import com.ENSPY.Reseau.APIRest.model.OptimalPriceResult;
 import com.ENSPY.Reseau.APIRest.service.PricingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 @Controller
 public class PricingController {
 
+    private static final List<Exports.Column<OptimalPriceResult>> EXPORT_COLUMNS = List.of(
+            new Exports.Column<>("id", OptimalPriceResult::getId),
+            new Exports.Column<>("productId", OptimalPriceResult::getProductId),
+            new Exports.Column<>("productName", OptimalPriceResult::getProductName),
+            new Exports.Column<>("prixDesConcurrents", OptimalPriceResult::getPrixDesConcurrents),
+            new Exports.Column<>("optimalPrice", OptimalPriceResult::getOptimalPrice),
+            new Exports.Column<>("potentialRevenue", OptimalPriceResult::getPotentialRevenue),
+            new Exports.Column<>("margin", OptimalPriceResult::getMargin),
+            new Exports.Column<>("calculatedAt", OptimalPriceResult::getCalculatedAt));
+
     private final PricingService pricingService;
+    private final ObjectWriter exportWriter;
+
+    @Value("${history.page.default-size:100}")
+    private int historyDefaultPageSize;
 
-    public PricingController(PricingService pricingService) {
+    public PricingController(PricingService pricingService, ObjectMapper objectMapper) {
         this.pricingService = pricingService;
+        this.exportWriter = objectMapper.writerFor(OptimalPriceResult.class);
     }
 
     public Mono<ServerResponse> calculateOptimalPrice(UUID productId) {
@@ -24,7 +49,42 @@ public class PricingController {
                 .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
     }
 
-    public Mono<ServerResponse> getPricingHistory() {
-        return ServerResponse.ok().body(pricingService.getPricingHistory(), OptimalPriceResult.class);
+    public Mono<ServerResponse> calculateOptimalPrices(ServerRequest request) {
+        return request.bodyToMono(PricingBatchRequest.class)
+                .defaultIfEmpty(new PricingBatchRequest())
+                .flatMap(batchRequest -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(pricingService.calculateOptimalPrices(batchRequest.getProductIds()), PricingBatchItem.class))
+                .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
+    }
+
+    /**
+     * Historique paginé : ?limit=&cursor=&productId=&from=&to=&view=latest
+     * Sans limit, seule la première page (history.page.default-size) est renvoyée ; suite via l'en-tête X-Next-Cursor.
+     */
+    public Mono<ServerResponse> getPricingHistory(ServerRequest request) {
+        HistoryFilter filter;
+        try {
+            filter = PageResponses.historyFilter(request, historyDefaultPageSize);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Paramètres invalides: " + e.getMessage()));
+        }
+        return PageResponses.page(pricingService.getPricingHistory(filter));
+    }
+
+    /**
+     * Export de l'historique complet en flux : ?format=csv|ndjson&productId=&from=&to=
+     */
+    public Mono<ServerResponse> exportPricingHistory(ServerRequest request) {
+        HistoryFilter filter;
+        boolean csv;
+        try {
+            filter = PageResponses.historyFilter(request, historyDefaultPageSize);
+            csv = Exports.csv(request);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Paramètres invalides: " + e.getMessage()));
+        }
+        Flux<OptimalPriceResult> rows = pricingService.exportPricingHistory(filter.getProductId(), filter.getFrom(), filter.getTo());
+        return csv ? Exports.csv("optimal_prices", rows, EXPORT_COLUMNS) : Exports.ndjson("optimal_prices", rows, exportWriter);
     }
 }
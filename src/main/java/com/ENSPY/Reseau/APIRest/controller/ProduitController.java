@@ -3,32 +3,142 @@ package com.ENSPY.Reseau.APIRest.controller;
 import com.ENSPY.Reseau.APIRest.model.Produit;
 import com.ENSPY.Reseau.APIRest.service.PricingService;
 import com.ENSPY.Reseau.APIRest.service.ProduitService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Controller
 public class ProduitController {
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    private static final List<Exports.Column<Produit>> EXPORT_COLUMNS = List.of(
+            new Exports.Column<>("id", Produit::getId),
+            new Exports.Column<>("name", Produit::getName),
+            new Exports.Column<>("description", Produit::getDescription),
+            new Exports.Column<>("dateLancement", Produit::getDateLancement),
+            new Exports.Column<>("prixDesConcurrents", Produit::getPrixDesConcurrents),
+            new Exports.Column<>("coutDeProduction", Produit::getCoutDeProduction),
+            new Exports.Column<>("desiredMargin", Produit::getDesiredMargin),
+            new Exports.Column<>("category", Produit::getCategory),
+            new Exports.Column<>("type", Produit::getType),
+            new Exports.Column<>("stock", Produit::getStock),
+            new Exports.Column<>("createdAt", Produit::getCreatedAt),
+            new Exports.Column<>("updatedAt", Produit::getUpdatedAt));
+
     private final ProduitService produitService;
     private final PricingService pricingService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter exportWriter;
+
+    @Value("${produit.page.default-size:100}")
+    private int defaultPageSize;
 
-    public ProduitController(ProduitService produitService, PricingService pricingService) {
+    public ProduitController(ProduitService produitService, PricingService pricingService, ObjectMapper objectMapper) {
         this.produitService = produitService;
         this.pricingService = pricingService;
+        this.objectMapper = objectMapper;
+        this.exportWriter = objectMapper.writerFor(Produit.class);
     }
 
-    public Mono<ServerResponse> getAllProducts() {
-        return ServerResponse.ok()
-                .body(produitService.getAllProducts(), Produit.class)
+    /**
+     * Liste paginée : ?limit=&cursor=&category=&type=&fields=name,category,...
+     * Le corps reste un tableau ; le curseur de la page suivante est renvoyé dans l'en-tête X-Next-Cursor
+     * (exposé par CORS). Sans limit, la réponse ne contient que la première page (produit.page.default-size) :
+     * le client suit X-Next-Cursor jusqu'à son absence pour lire tout le catalogue.
+     */
+    public Mono<ServerResponse> getAllProducts(ServerRequest request) {
+        int limit;
+        try {
+            limit = request.queryParam("limit").map(Integer::parseInt).orElse(defaultPageSize);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "limit invalide"));
+        }
+        Set<String> fields = request.queryParam("fields")
+                .map(value -> Arrays.stream(value.split(","))
+                        .map(String::trim)
+                        .filter(field -> !field.isEmpty())
+                        .collect(Collectors.toCollection(LinkedHashSet::new)))
+                .orElse(new LinkedHashSet<>());
+        return produitService.getProducts(limit, request.queryParam("cursor").orElse(null),
+                        request.queryParam("category").orElse(null), request.queryParam("type").orElse(null), fields)
+                .flatMap(page -> {
+                    ServerResponse.BodyBuilder response = ServerResponse.ok();
+                    if (page.getNextCursor() != null) {
+                        response.header(PageResponses.NEXT_CURSOR_HEADER, page.getNextCursor());
+                    }
+                    if (fields.isEmpty()) {
+                        return response.bodyValue(page.getProduits());
+                    }
+                    // Champs demandés uniquement (plus l'id)
+                    List<Map<String, Object>> sparse = new ArrayList<>(page.getProduits().size());
+                    for (Produit produit : page.getProduits()) {
+                        Map<String, Object> values = objectMapper.convertValue(produit, new TypeReference<>() { });
+                        values.keySet().removeIf(key -> !key.equals("id") && !fields.contains(key));
+                        sparse.add(values);
+                    }
+                    return response.bodyValue(sparse);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest()
+                        .bodyValue(Map.of("message", e.getMessage())))
                 .onErrorResume(e -> ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .bodyValue(Map.of("message", e.getMessage())));
     }
 
+    /**
+     * Import en masse : corps en NDJSON (application/x-ndjson) ou CSV (text/csv) lu ligne à ligne,
+     * réponse avec le nombre de produits importés et les erreurs par ligne
+     */
+    public Mono<ServerResponse> importProducts(ServerRequest request) {
+        MediaType contentType = request.headers().contentType().orElse(MediaType.APPLICATION_NDJSON);
+        boolean csv;
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            csv = true;
+        } else if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            csv = false;
+        } else {
+            return ServerResponse.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .bodyValue(Map.of("message", "Formats acceptés: application/x-ndjson, text/csv"));
+        }
+        return produitService.importProducts(request.bodyToFlux(String.class), csv)
+                .flatMap(report -> ServerResponse.ok().bodyValue(report))
+                .onErrorResume(e -> ServerResponse.status(HttpStatus.BAD_REQUEST)
+                        .bodyValue(Map.of("message", e.getMessage())));
+    }
+
+    /**
+     * Export de tous les produits en flux : ?format=csv|ndjson&category=&type=
+     * (le CSV exporté peut être réimporté tel quel via /produit/import)
+     */
+    public Mono<ServerResponse> exportProducts(ServerRequest request) {
+        boolean csv;
+        try {
+            csv = Exports.csv(request);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage()));
+        }
+        Flux<Produit> rows = produitService.exportProducts(request.queryParam("category").orElse(null),
+                request.queryParam("type").orElse(null));
+        return csv ? Exports.csv("produits", rows, EXPORT_COLUMNS) : Exports.ndjson("produits", rows, exportWriter);
+    }
+
     public Mono<ServerResponse> getProductById(UUID id) {
         return produitService.getProductById(id)
                 .flatMap(produit -> ServerResponse.ok().bodyValue(produit))
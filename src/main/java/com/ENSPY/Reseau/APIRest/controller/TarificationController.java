@@ -1,21 +1,49 @@
 package com.ENSPY.Reseau.APIRest.controller;
 
+import com.ENSPY.Reseau.APIRest.dto.HistoryFilter;
+import com.ENSPY.Reseau.APIRest.dto.TarificationBatchRequest;
 import com.ENSPY.Reseau.APIRest.model.TarificationResult;
 import com.ENSPY.Reseau.APIRest.service.TarificationService;
+import com.ENSPY.Reseau.APIRest.tarification.TarificationStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 @Controller
 public class TarificationController {
 
+    private static final List<Exports.Column<TarificationResult>> EXPORT_COLUMNS = List.of(
+            new Exports.Column<>("id", TarificationResult::getId),
+            new Exports.Column<>("productId", TarificationResult::getProductId),
+            new Exports.Column<>("productName", TarificationResult::getProductName),
+            new Exports.Column<>("prixDesConcurrents", TarificationResult::getPrixDesConcurrents),
+            new Exports.Column<>("tarificationPrice", TarificationResult::getTarificationPrice),
+            new Exports.Column<>("potentialRevenue", TarificationResult::getPotentialRevenue),
+            new Exports.Column<>("margin", TarificationResult::getMargin),
+            new Exports.Column<>("timeInMonths", TarificationResult::getTimeInMonths),
+            new Exports.Column<>("calculatedAt", TarificationResult::getCalculatedAt));
+
     private final TarificationService tarificationService;
+    private final ObjectWriter exportWriter;
+
+    @Value("${history.page.default-size:100}")
+    private int historyDefaultPageSize;
 
-    public TarificationController(TarificationService tarificationService) {
+    public TarificationController(TarificationService tarificationService, ObjectMapper objectMapper) {
         this.tarificationService = tarificationService;
+        this.exportWriter = objectMapper.writerFor(TarificationResult.class);
     }
 
     public Mono<ServerResponse> calculateDecremageTarificationPrice(UUID productId, Integer prixMax) {
@@ -36,7 +64,114 @@ public class TarificationController {
                 .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
     }
 
-    public Mono<ServerResponse> getPricingHistory() {
-        return ServerResponse.ok().body(tarificationService.getPricingHistory(), TarificationResult.class);
+    public Mono<ServerResponse> calculateTarificationPrices(String strategie, ServerRequest request) {
+        TarificationStrategy strategy;
+        try {
+            strategy = TarificationStrategy.valueOf(strategie.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Stratégie inconnue: " + strategie));
+        }
+        return request.bodyToMono(TarificationBatchRequest.class)
+                .defaultIfEmpty(new TarificationBatchRequest())
+                .flatMap(batchRequest -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(tarificationService.calculateTarificationPrices(strategy, batchRequest.getProductIds(),
+                                batchRequest.getMonthsInFuture() != null ? batchRequest.getMonthsInFuture() : 0,
+                                batchRequest.getPrixReference()), TarificationResult.class))
+                .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
+    }
+
+    public Mono<ServerResponse> calculateFuturePricing(UUID productId, String strategie, int monthsInFuture, ServerRequest request) {
+        Double prixReference;
+        try {
+            prixReference = request.queryParam("prixReference").map(Double::valueOf).orElse(null);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "prixReference invalide"));
+        }
+        return tarificationService.calculateFuturePricing(productId, strategie, monthsInFuture, prixReference)
+                .flatMap(result -> ServerResponse.ok().bodyValue(result))
+                .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
+    }
+
+    /**
+     * Flux des prix futurs : text/event-stream si le client l'accepte, NDJSON sinon
+     */
+    public Mono<ServerResponse> streamFuturePricing(ServerRequest request) {
+        TarificationStrategy strategy;
+        int months;
+        Double prixReference;
+        List<UUID> productIds;
+        try {
+            strategy = TarificationStrategy.valueOf(request.queryParam("strategie").orElse("ALIGNEMENT").toUpperCase());
+            months = request.queryParam("months").map(Integer::parseInt).orElse(0);
+            prixReference = request.queryParam("prixReference").map(Double::valueOf).orElse(null);
+            productIds = request.queryParam("productIds")
+                    .map(ids -> Arrays.stream(ids.split(","))
+                            .map(String::trim)
+                            .filter(id -> !id.isEmpty())
+                            .map(UUID::fromString)
+                            .toList())
+                    .orElse(List.of());
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Paramètres invalides: " + e.getMessage()));
+        }
+        MediaType mediaType = request.headers().accept().contains(MediaType.TEXT_EVENT_STREAM)
+                ? MediaType.TEXT_EVENT_STREAM
+                : MediaType.APPLICATION_NDJSON;
+        return ServerResponse.ok()
+                .contentType(mediaType)
+                .body(tarificationService.streamFuturePricing(strategy, productIds, months, prixReference), TarificationResult.class);
+    }
+
+    public Mono<ServerResponse> calculateTrajectory(UUID productId, ServerRequest request) {
+        List<TarificationStrategy> strategies;
+        int months;
+        Map<TarificationStrategy, Double> references = new EnumMap<>(TarificationStrategy.class);
+        try {
+            String strategie = request.queryParam("strategie").orElse("ALL");
+            strategies = "ALL".equalsIgnoreCase(strategie)
+                    ? List.of(TarificationStrategy.values())
+                    : List.of(TarificationStrategy.valueOf(strategie.toUpperCase()));
+            months = request.queryParam("months").map(Integer::parseInt).orElse(12);
+            request.queryParam("prixMax").map(Double::valueOf)
+                    .ifPresent(prixMax -> references.put(TarificationStrategy.ECREMAGE, prixMax));
+            request.queryParam("prixMin").map(Double::valueOf)
+                    .ifPresent(prixMin -> references.put(TarificationStrategy.PENETRATION, prixMin));
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Paramètres invalides: " + e.getMessage()));
+        }
+        return tarificationService.calculateTrajectory(productId, strategies, months, references)
+                .flatMap(result -> ServerResponse.ok().bodyValue(result))
+                .onErrorResume(e -> ServerResponse.badRequest().bodyValue(Map.of("message", e.getMessage())));
+    }
+
+    /**
+     * Historique paginé : ?limit=&cursor=&productId=&from=&to=&view=latest
+     * Sans limit, seule la première page (history.page.default-size) est renvoyée ; suite via l'en-tête X-Next-Cursor.
+     */
+    public Mono<ServerResponse> getPricingHistory(ServerRequest request) {
+        HistoryFilter filter;
+        try {
+            filter = PageResponses.historyFilter(request, historyDefaultPageSize);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Paramètres invalides: " + e.getMessage()));
+        }
+        return PageResponses.page(tarificationService.getPricingHistory(filter));
+    }
+
+    /**
+     * Export de l'historique complet en flux : ?format=csv|ndjson&productId=&from=&to=
+     */
+    public Mono<ServerResponse> exportPricingHistory(ServerRequest request) {
+        HistoryFilter filter;
+        boolean csv;
+        try {
+            filter = PageResponses.historyFilter(request, historyDefaultPageSize);
+            csv = Exports.csv(request);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Paramètres invalides: " + e.getMessage()));
+        }
+        Flux<TarificationResult> rows = tarificationService.exportPricingHistory(filter.getProductId(), filter.getFrom(), filter.getTo());
+        return csv ? Exports.csv("tarification_prices", rows, EXPORT_COLUMNS) : Exports.ndjson("tarification_prices", rows, exportWriter);
     }
 }
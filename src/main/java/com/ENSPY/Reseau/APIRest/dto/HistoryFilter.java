@@ -0,0 +1,18 @@
+package com.ENSPY.Reseau.APIRest.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class HistoryFilter {
+    // Tous optionnels : produit, période [from, to[ et curseur de la page précédente
+    private UUID productId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String cursor;
+    private int limit;
+    // Vue agrégée : dernier calcul de chaque produit
+    private boolean latest;
+}
@@ -0,0 +1,27 @@
+package com.ENSPY.Reseau.APIRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+public class HistoryPage<T> {
+    private List<T> results;
+    // Curseur de la page suivante ; null sur la dernière page
+    private String nextCursor;
+
+    /**
+     * Page construite à partir de limit + 1 lignes lues : la ligne en trop signale une page suivante,
+     * dont le curseur est calculé sur la dernière ligne conservée
+     */
+    public static <T> HistoryPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new HistoryPage<>(rows, null);
+        }
+        List<T> page = rows.subList(0, limit);
+        return new HistoryPage<>(page, cursorOf.apply(page.get(limit - 1)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.ENSPY.Reseau.APIRest.dto;
+
+import com.ENSPY.Reseau.APIRest.model.OptimalPriceResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PricingBatchItem {
+    private UUID productId;
+    private String status;
+    private OptimalPriceResult result;
+    private String message;
+
+    public static PricingBatchItem success(OptimalPriceResult result) {
+        PricingBatchItem item = new PricingBatchItem();
+        item.setProductId(result.getProductId());
+        item.setStatus("success");
+        item.setResult(result);
+        return item;
+    }
+
+    public static PricingBatchItem error(UUID productId, String message) {
+        PricingBatchItem item = new PricingBatchItem();
+        item.setProductId(productId);
+        item.setStatus("error");
+        item.setMessage(message);
+        return item;
+    }
+}
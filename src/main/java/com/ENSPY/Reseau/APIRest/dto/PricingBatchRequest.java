@@ -0,0 +1,12 @@
+package com.ENSPY.Reseau.APIRest.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class PricingBatchRequest {
+    // Vide ou absent : tous les produits de l'utilisateur
+    private List<UUID> productIds;
+}
@@ -0,0 +1,24 @@
+package com.ENSPY.Reseau.APIRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProduitImportReport {
+    private long imported;
+    private long rejected;
+    // Erreurs par ligne, limitées à produit.import.max-errors (errorsTruncated indique qu'il y en a d'autres)
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        // Numéro de ligne dans le corps de la requête (à partir de 1, en-tête CSV compris)
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ENSPY.Reseau.APIRest.dto;
+
+import com.ENSPY.Reseau.APIRest.model.Produit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProduitPage {
+    private List<Produit> produits;
+    // Curseur de la page suivante ; null sur la dernière page
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.ENSPY.Reseau.APIRest.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class TarificationBatchRequest {
+    // Vide ou absent : tous les produits de l'utilisateur
+    private List<UUID> productIds;
+    // Prix maximal (écrémage) ou minimal (pénétration) ; valeur par défaut de la stratégie si absent
+    private Double prixReference;
+    private Integer monthsInFuture;
+}
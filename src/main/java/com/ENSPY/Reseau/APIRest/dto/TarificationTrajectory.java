@@ -0,0 +1,27 @@
+package com.ENSPY.Reseau.APIRest.dto;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Trajectoire des prix d'un produit sur les mois à venir, pour une ou plusieurs stratégies.
+ * L'indice i des tableaux correspond au mois startMonth + i depuis le lancement.
+ */
+@Data
+public class TarificationTrajectory {
+    private UUID productId;
+    private String productName;
+    private double startMonth;
+    private int months;
+    private Map<String, Curve> strategies = new LinkedHashMap<>();
+
+    @Data
+    public static class Curve {
+        private double[] prices;
+        private double[] revenues;
+        private double[] margins;
+    }
+}
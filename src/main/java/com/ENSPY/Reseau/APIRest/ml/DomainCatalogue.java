@@ -0,0 +1,171 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catalogue en mémoire des domaines connus du modèle de prix.
+ * La normalisation d'une catégorie devient une simple recherche locale ;
+ * le catalogue est rafraîchi en arrière-plan et reste servi (même périmé)
+ * tant que le service ML est indisponible.
+ */
+@Component
+public class DomainCatalogue {
+
+    private static final Logger log = LoggerFactory.getLogger(DomainCatalogue.class);
+
+    private final PricingModel pricingModel;
+    private final Duration ttl;
+    private final Duration refreshInterval;
+    private final Counter refreshFailures;
+
+    private final AtomicReference<Mono<Snapshot>> inFlightRefresh = new AtomicReference<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private Disposable backgroundRefresh;
+
+    public DomainCatalogue(
+            PricingModel pricingModel,
+            MeterRegistry meterRegistry,
+            @Value("${pricing.ml.domains.ttl:10m}") Duration ttl,
+            @Value("${pricing.ml.domains.refresh-interval:5m}") Duration refreshInterval) {
+        this.pricingModel = pricingModel;
+        this.ttl = ttl;
+        this.refreshInterval = refreshInterval;
+        this.refreshFailures = Counter.builder("pricing.ml.domains.refresh.failures")
+                .description("Échecs de rafraîchissement du catalogue des domaines")
+                .register(meterRegistry);
+        Gauge.builder("pricing.ml.domains.size", this, catalogue -> catalogue.snapshot.index.size())
+                .description("Nombre de domaines dans le catalogue")
+                .register(meterRegistry);
+        Gauge.builder("pricing.ml.domains.age", this, catalogue -> catalogue.snapshot.ageMillis() / 1000.0)
+                .description("Âge du catalogue des domaines")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startBackgroundRefresh() {
+        backgroundRefresh = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh().onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stopBackgroundRefresh() {
+        if (backgroundRefresh != null) {
+            backgroundRefresh.dispose();
+        }
+    }
+
+    /**
+     * Retourne le nom canonique du domaine correspondant à la catégorie (insensible à la casse).
+     * Le modèle n'est interrogé que si le catalogue n'a encore jamais été chargé.
+     */
+    public Mono<String> resolve(String category) {
+        Snapshot current = snapshot;
+        if (current.isEmpty()) {
+            return refresh()
+                    .map(loaded -> loaded.lookup(category))
+                    .onErrorMap(e -> new RuntimeException("Erreur lors de la normalisation du domaine: " + e.getMessage()));
+        }
+        if (current.ageMillis() > ttl.toMillis()) {
+            // Stale-while-revalidate : on répond avec l'ancien catalogue pendant le rafraîchissement
+            refresh().subscribe(loaded -> { }, e -> { });
+        }
+        try {
+            return Mono.just(current.lookup(category));
+        } catch (RuntimeException e) {
+            return Mono.error(new RuntimeException("Erreur lors de la normalisation du domaine: " + e.getMessage()));
+        }
+    }
+
+    public Set<String> getDomains() {
+        return snapshot.domains;
+    }
+
+    /**
+     * Recharge le catalogue depuis le modèle ; les appels concurrents partagent la même requête.
+     */
+    public Mono<Snapshot> refresh() {
+        while (true) {
+            Mono<Snapshot> current = inFlightRefresh.get();
+            if (current != null) {
+                return current;
+            }
+            AtomicReference<Mono<Snapshot>> self = new AtomicReference<>();
+            Mono<Snapshot> fetch = pricingModel.fetchDomains()
+                    .map(Snapshot::of)
+                    .doOnNext(loaded -> snapshot = loaded)
+                    .doOnError(e -> {
+                        refreshFailures.increment();
+                        log.warn("Échec du rafraîchissement du catalogue des domaines: {}", e.getMessage());
+                    })
+                    .doFinally(signal -> inFlightRefresh.compareAndSet(self.get(), null))
+                    .cache();
+            self.set(fetch);
+            if (inFlightRefresh.compareAndSet(null, fetch)) {
+                return fetch;
+            }
+        }
+    }
+
+    public static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), 0L);
+
+        private final Map<String, String> index;
+        private final Set<String> domains;
+        private final long loadedAtMillis;
+
+        private Snapshot(Map<String, String> index, long loadedAtMillis) {
+            this.index = index;
+            this.domains = Collections.unmodifiableSet(new TreeSet<>(index.values()));
+            this.loadedAtMillis = loadedAtMillis;
+        }
+
+        static Snapshot of(Collection<String> domains) {
+            Map<String, String> index = new HashMap<>();
+            for (String domain : domains) {
+                index.put(domain.toLowerCase(Locale.ROOT), domain);
+            }
+            return new Snapshot(Map.copyOf(index), System.currentTimeMillis());
+        }
+
+        String lookup(String category) {
+            String domain = index.get(category.toLowerCase(Locale.ROOT));
+            if (domain == null) {
+                throw new RuntimeException("Domaine non reconnu: " + category + ". Domaines disponibles: " + domains);
+            }
+            return domain;
+        }
+
+        boolean isEmpty() {
+            return loadedAtMillis == 0L;
+        }
+
+        long ageMillis() {
+            return isEmpty() ? 0L : System.currentTimeMillis() - loadedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.springframework.core.io.Resource;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Modèle évalué dans le processus à partir des paramètres exportés du modèle entraîné (fichier JSON) :
+ * <pre>
+ * {
+ *   "domaines": ["Alimentation", "Electronique"],
+ *   "lineaire": {"intercept": 1.2, "coefficients": [0.0, 0.8, 0.4, 12.5]},
+ *   "ensemble": {"base": 0.0, "agregation": "somme", "arbres": [
+ *     {"feature": [1, -1, -1], "seuil": [50.0, 0, 0], "gauche": [1, -1, -1], "droite": [2, -1, -1], "valeur": [0, 40.0, 60.0]}
+ *   ]}
+ * }
+ * </pre>
+ * L'ordre de "domaines" donne l'encodage du domaine. Les caractéristiques sont, dans l'ordre :
+ * domaine encodé, prix concurrent, coût de production, marge voulue. Le prix prédit est la somme
+ * de la partie linéaire et de l'ensemble d'arbres (chacune optionnelle) ; un nœud est une feuille
+ * lorsque gauche vaut -1. L'évaluation ne travaille que sur des tableaux primitifs.
+ */
+public class LocalPricingModel implements PricingModel {
+
+    private static final int FEATURE_COUNT = 4;
+
+    private final Map<String, Integer> domainIndex;
+    private final Set<String> domains;
+    private final double intercept;
+    private final double[] coefficients;
+    private final double ensembleBase;
+    private final boolean ensembleAverage;
+    private final int[][] treeFeature;
+    private final double[][] treeThreshold;
+    private final int[][] treeLeft;
+    private final int[][] treeRight;
+    private final double[][] treeValue;
+    private final PricingModel fallback;
+
+    private LocalPricingModel(ModelDefinition definition, PricingModel fallback) {
+        if (definition.getDomaines() == null || definition.getDomaines().isEmpty()) {
+            throw new IllegalArgumentException("Le modèle local ne déclare aucun domaine");
+        }
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < definition.getDomaines().size(); i++) {
+            index.put(definition.getDomaines().get(i), i);
+        }
+        this.domainIndex = Map.copyOf(index);
+        this.domains = Collections.unmodifiableSet(new LinkedHashSet<>(definition.getDomaines()));
+
+        Linear linear = definition.getLineaire();
+        if (linear != null && (linear.getCoefficients() == null || linear.getCoefficients().length != FEATURE_COUNT)) {
+            throw new IllegalArgumentException("La partie linéaire doit avoir " + FEATURE_COUNT + " coefficients");
+        }
+        this.intercept = linear != null ? linear.getIntercept() : 0.0;
+        this.coefficients = linear != null ? linear.getCoefficients() : new double[FEATURE_COUNT];
+
+        Ensemble ensemble = definition.getEnsemble();
+        List<Tree> trees = ensemble != null && ensemble.getArbres() != null ? ensemble.getArbres() : List.of();
+        if (linear == null && trees.isEmpty()) {
+            throw new IllegalArgumentException("Le modèle local ne contient ni partie linéaire ni arbres");
+        }
+        this.ensembleBase = ensemble != null ? ensemble.getBase() : 0.0;
+        this.ensembleAverage = ensemble != null && "moyenne".equalsIgnoreCase(ensemble.getAgregation());
+        this.treeFeature = new int[trees.size()][];
+        this.treeThreshold = new double[trees.size()][];
+        this.treeLeft = new int[trees.size()][];
+        this.treeRight = new int[trees.size()][];
+        this.treeValue = new double[trees.size()][];
+        for (int t = 0; t < trees.size(); t++) {
+            Tree tree = trees.get(t);
+            tree.validate(t);
+            treeFeature[t] = tree.getFeature();
+            treeThreshold[t] = tree.getSeuil();
+            treeLeft[t] = tree.getGauche();
+            treeRight[t] = tree.getDroite();
+            treeValue[t] = tree.getValeur();
+        }
+        this.fallback = fallback;
+    }
+
+    /**
+     * Charge le modèle ; fallback (optionnel) est utilisé pour les domaines inconnus du modèle local
+     */
+    public static LocalPricingModel load(Resource resource, ObjectMapper objectMapper, PricingModel fallback) throws IOException {
+        try (InputStream input = resource.getInputStream()) {
+            return new LocalPricingModel(objectMapper.readValue(input, ModelDefinition.class), fallback);
+        }
+    }
+
+    @Override
+    public Mono<Set<String>> fetchDomains() {
+        if (fallback == null) {
+            return Mono.just(domains);
+        }
+        return fallback.fetchDomains()
+                .map(remoteDomains -> {
+                    Set<String> all = new LinkedHashSet<>(domains);
+                    all.addAll(remoteDomains);
+                    return (Set<String>) all;
+                })
+                .onErrorReturn(domains);
+    }
+
+    @Override
+    public Mono<Double> predict(PredictionRequest request) {
+        Integer domain = domainIndex.get(request.domaine());
+        if (domain == null) {
+            return fallback != null
+                    ? fallback.predict(request)
+                    : Mono.error(new RuntimeException("Domaine non reconnu par le modèle local: " + request.domaine()));
+        }
+        double price = evaluate(domain, request.prixConcurrent(), request.coutProduction(), request.margeVoulue());
+        if (!(price > 0) || Double.isInfinite(price)) {
+            return Mono.error(new RuntimeException("Prix prédit invalide: " + price));
+        }
+        return Mono.just(price);
+    }
+
+    public double evaluate(int domain, double prixConcurrent, double coutProduction, double margeVoulue) {
+        double price = intercept
+                + coefficients[0] * domain
+                + coefficients[1] * prixConcurrent
+                + coefficients[2] * coutProduction
+                + coefficients[3] * margeVoulue;
+        int treeCount = treeFeature.length;
+        if (treeCount == 0) {
+            return price;
+        }
+        double sum = 0.0;
+        for (int t = 0; t < treeCount; t++) {
+            int[] feature = treeFeature[t];
+            double[] threshold = treeThreshold[t];
+            int[] left = treeLeft[t];
+            int[] right = treeRight[t];
+            int node = 0;
+            while (left[node] != -1) {
+                double x;
+                switch (feature[node]) {
+                    case 0 -> x = domain;
+                    case 1 -> x = prixConcurrent;
+                    case 2 -> x = coutProduction;
+                    default -> x = margeVoulue;
+                }
+                node = x <= threshold[node] ? left[node] : right[node];
+            }
+            sum += treeValue[t][node];
+        }
+        return price + ensembleBase + (ensembleAverage ? sum / treeCount : sum);
+    }
+
+    @Data
+    public static class ModelDefinition {
+        private List<String> domaines;
+        private Linear lineaire;
+        private Ensemble ensemble;
+    }
+
+    @Data
+    public static class Linear {
+        private double intercept;
+        private double[] coefficients;
+    }
+
+    @Data
+    public static class Ensemble {
+        private double base;
+        private String agregation;
+        private List<Tree> arbres;
+    }
+
+    @Data
+    public static class Tree {
+        private int[] feature;
+        private double[] seuil;
+        private int[] gauche;
+        private int[] droite;
+        private double[] valeur;
+
+        void validate(int position) {
+            if (feature == null || seuil == null || gauche == null || droite == null || valeur == null
+                    || feature.length == 0
+                    || seuil.length != feature.length || gauche.length != feature.length
+                    || droite.length != feature.length || valeur.length != feature.length) {
+                throw new IllegalArgumentException("Arbre " + position + " invalide: tableaux absents ou de tailles différentes");
+            }
+            for (int node = 0; node < feature.length; node++) {
+                if (gauche[node] == -1) {
+                    continue;
+                }
+                if (feature[node] < 0 || feature[node] >= FEATURE_COUNT
+                        || gauche[node] <= node || gauche[node] >= feature.length
+                        || droite[node] <= node || droite[node] >= feature.length) {
+                    throw new IllegalArgumentException("Arbre " + position + " invalide au nœud " + node);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import java.util.List;
+
+/**
+ * Réponse de l'endpoint /predict/batch : un résultat par entrée, dans l'ordre de la requête
+ */
+public class MLBatchPredictionResponse {
+    private String statut;
+    private List<MLPredictionResponse> resultats;
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public void setStatut(String statut) {
+        this.statut = statut;
+    }
+
+    public List<MLPredictionResponse> getResultats() {
+        return resultats;
+    }
+
+    public void setResultats(List<MLPredictionResponse> resultats) {
+        this.resultats = resultats;
+    }
+}
@@ -0,0 +1,260 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Client HTTP du service ML (API Flask).
+ * Chaque appel est borné dans le temps et passe par le bulkhead et le disjoncteur du service ;
+ * les prédictions peuvent être doublées (hedging) si la première réponse tarde.
+ */
+@Component
+public class MLClient {
+
+    private static final Logger log = LoggerFactory.getLogger(MLClient.class);
+
+    private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Duration callTimeout;
+    private final boolean hedgeEnabled;
+    private final Duration hedgeDelay;
+    private final Counter hedgedCalls;
+    private final MeterRegistry meterRegistry;
+
+    public MLClient(
+            WebClient mlWebClient,
+            CircuitBreaker mlCircuitBreaker,
+            Bulkhead mlBulkhead,
+            MeterRegistry meterRegistry,
+            @Value("${pricing.ml.client.call-timeout:6s}") Duration callTimeout,
+            @Value("${pricing.ml.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${pricing.ml.hedge.delay:500ms}") Duration hedgeDelay) {
+        this.webClient = mlWebClient;
+        this.circuitBreaker = mlCircuitBreaker;
+        this.bulkhead = mlBulkhead;
+        this.callTimeout = callTimeout;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeDelay = hedgeDelay;
+        this.meterRegistry = meterRegistry;
+        this.hedgedCalls = Counter.builder("pricing.ml.hedged.calls")
+                .description("Requêtes doublées vers le service ML")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Vrai tant que le disjoncteur est ouvert : les appels seraient refusés immédiatement
+     */
+    public boolean isOpen() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    public CallNotPermittedException openCircuitException() {
+        return CallNotPermittedException.createCallNotPermittedException(circuitBreaker);
+    }
+
+    /**
+     * Domaines connus du service ML (clés de "domaines_disponibles")
+     */
+    public Mono<Set<String>> fetchDomains() {
+        return protect("domains", false, () -> webClient.get()
+                .uri("/domains")
+                .retrieve()
+                .bodyToMono(Map.class)
+                .map(MLClient::toDomains));
+    }
+
+    private static Set<String> toDomains(Map<?, ?> response) {
+        Object available = response.get("domaines_disponibles");
+        Collection<?> names;
+        if (available instanceof Map<?, ?> map) {
+            names = map.keySet();
+        } else if (available instanceof Collection<?> collection) {
+            names = collection;
+        } else {
+            throw new IllegalStateException("Réponse /domains invalide: " + response);
+        }
+        Set<String> domains = new LinkedHashSet<>();
+        for (Object name : names) {
+            domains.add(String.valueOf(name));
+        }
+        return domains;
+    }
+
+    public Mono<Double> predict(PredictionRequest predictionRequest) {
+        return protect("predict", true, () -> sendPrediction(predictionRequest));
+    }
+
+    private Mono<Double> sendPrediction(PredictionRequest predictionRequest) {
+        Map<String, Object> modelInput = predictionRequest.toModelInput();
+        log.debug("Prédiction demandée au service ML: {}", modelInput);
+
+        return webClient.post()
+                .uri("/predict")
+                .header("Content-Type", "application/json")
+                .bodyValue(modelInput)
+                .retrieve()
+                .onStatus(
+                        status -> status.is4xxClientError(),
+                        response -> response.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new RuntimeException("Erreur 4xx: " + errorBody)))
+                )
+                .onStatus(
+                        status -> status.is5xxServerError(),
+                        response -> response.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new RuntimeException("Erreur 5xx: " + errorBody)))
+                )
+                .bodyToMono(MLPredictionResponse.class)
+                .doOnNext(response -> log.debug("Réponse du service ML: statut={}, prix={}",
+                        response.getStatut(), response.getPrixPredit()))
+                .flatMap(MLClient::toPrice);
+    }
+
+    /**
+     * Envoie plusieurs prédictions en une seule requête ; les réponses sont dans l'ordre des entrées.
+     * Une réponse 404 signale que le service ne supporte pas le mode lot.
+     */
+    public Mono<List<MLPredictionResponse>> predictBatch(List<PredictionRequest> predictionRequests) {
+        List<Map<String, Object>> modelInputs = new ArrayList<>(predictionRequests.size());
+        for (PredictionRequest predictionRequest : predictionRequests) {
+            modelInputs.add(predictionRequest.toModelInput());
+        }
+        return protect("predict_batch", true, () -> webClient.post()
+                .uri("/predict/batch")
+                .header("Content-Type", "application/json")
+                .bodyValue(Map.of("predictions", modelInputs))
+                .retrieve()
+                .bodyToMono(MLBatchPredictionResponse.class)
+                .flatMap(response -> {
+                    if (response.getResultats() == null || response.getResultats().size() != predictionRequests.size()) {
+                        return Mono.error(new RuntimeException("Réponse du lot de prédictions incomplète (statut: " + response.getStatut() + ")"));
+                    }
+                    return Mono.just(response.getResultats());
+                }));
+    }
+
+    /**
+     * Délai global, disjoncteur et mesure autour de l'appel (doublé si hedge et pricing.ml.hedge.enabled) ;
+     * chaque tentative prend sa propre place dans le bulkhead
+     */
+    private <T> Mono<T> protect(String operation, boolean hedge, Supplier<Mono<T>> call) {
+        Supplier<Mono<T>> attempt = () -> call.get().transformDeferred(BulkheadOperator.of(bulkhead));
+        return (hedge ? hedged(attempt) : attempt.get())
+                .timeout(callTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(protectedCall -> timed(operation, protectedCall));
+    }
+
+    /**
+     * Durée de chaque appel au service ML par opération et par issue (refus du disjoncteur ou du bulkhead compris)
+     */
+    private <T> Mono<T> timed(String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(value -> stop(sample, operation, "success"))
+                    .doOnError(e -> stop(sample, operation, failureReason(e)))
+                    .doOnCancel(() -> stop(sample, operation, "cancelled"));
+        });
+    }
+
+    private void stop(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder("pricing.ml.requests")
+                .description("Appels au service ML")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Cause d'échec d'un appel, pour les tags des métriques
+     */
+    public static String failureReason(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            return "circuit_open";
+        }
+        if (e instanceof BulkheadFullException) {
+            return "bulkhead_full";
+        }
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        return "error";
+    }
+
+    /**
+     * Relance la même requête si aucune réponse n'est arrivée après hedgeDelay ; la première réponse valide l'emporte.
+     * Un échec de la première tentative avant l'envoi de la seconde est transmis tel quel (pas de relance) ;
+     * si les deux tentatives échouent, l'erreur de la première est transmise.
+     */
+    private <T> Mono<T> hedged(Supplier<Mono<T>> call) {
+        if (!hedgeEnabled) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> firstFailed = Sinks.empty();
+            AtomicBoolean hedgeSent = new AtomicBoolean();
+            AtomicReference<Throwable> firstError = new AtomicReference<>();
+            Mono<T> first = call.get().doOnError(e -> firstFailed.tryEmitEmpty());
+            // Seconde tentative envoyée après hedgeDelay, sauf si la première a déjà échoué
+            Mono<T> hedge = Mono.delay(hedgeDelay).flux()
+                    .takeUntilOther(firstFailed.asMono())
+                    .next()
+                    .flatMap(tick -> {
+                        hedgeSent.set(true);
+                        hedgedCalls.increment();
+                        return call.get();
+                    });
+            return Flux.merge(first.materialize(), hedge.materialize())
+                    .<T>handle((signal, sink) -> {
+                        if (signal.isOnNext()) {
+                            sink.next(signal.get());
+                        } else if (signal.isOnError()
+                                && (!firstError.compareAndSet(null, signal.getThrowable()) || !hedgeSent.get())) {
+                            // Seconde erreur, ou échec sans seconde tentative en cours : première erreur transmise telle quelle
+                            sink.error(firstError.get());
+                        }
+                    })
+                    .next();
+        });
+    }
+
+    static Mono<Double> toPrice(MLPredictionResponse response) {
+        if ("success".equals(response.getStatut())) {
+            double predictedPrice = response.getPrixPredit();
+            if (predictedPrice <= 0) {
+                return Mono.error(new RuntimeException("Prix prédit invalide: " + predictedPrice));
+            }
+            return Mono.just(predictedPrice);
+        }
+        return Mono.error(new RuntimeException("La prédiction ML a échoué avec le statut: " + response.getStatut()));
+    }
+}
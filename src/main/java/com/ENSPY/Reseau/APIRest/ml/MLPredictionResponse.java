@@ -0,0 +1,82 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+/**
+ * Réponse de l'endpoint /predict de l'API Flask
+ */
+public class MLPredictionResponse {
+    private double prixPredit;
+    private CaracteristiquesUtilisees caracteristiquesUtilisees;
+    private String statut;
+
+    public double getPrixPredit() {
+        return prixPredit;
+    }
+
+    public void setPrixPredit(double prixPredit) {
+        this.prixPredit = prixPredit;
+    }
+
+    public CaracteristiquesUtilisees getCaracteristiquesUtilisees() {
+        return caracteristiquesUtilisees;
+    }
+
+    public void setCaracteristiquesUtilisees(CaracteristiquesUtilisees caracteristiquesUtilisees) {
+        this.caracteristiquesUtilisees = caracteristiquesUtilisees;
+    }
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public void setStatut(String statut) {
+        this.statut = statut;
+    }
+
+    public static class CaracteristiquesUtilisees {
+        private Object domaine;
+        private int domaineEncode;
+        private double prixConcurrent;
+        private double coutProduction;
+        private double margeVoulue;
+
+        public Object getDomaine() {
+            return domaine;
+        }
+
+        public void setDomaine(Object domaine) {
+            this.domaine = domaine;
+        }
+
+        public int getDomaineEncode() {
+            return domaineEncode;
+        }
+
+        public void setDomaineEncode(int domaineEncode) {
+            this.domaineEncode = domaineEncode;
+        }
+
+        public double getPrixConcurrent() {
+            return prixConcurrent;
+        }
+
+        public void setPrixConcurrent(double prixConcurrent) {
+            this.prixConcurrent = prixConcurrent;
+        }
+
+        public double getCoutProduction() {
+            return coutProduction;
+        }
+
+        public void setCoutProduction(double coutProduction) {
+            this.coutProduction = coutProduction;
+        }
+
+        public double getMargeVoulue() {
+            return margeVoulue;
+        }
+
+        public void setMargeVoulue(double margeVoulue) {
+            this.margeVoulue = margeVoulue;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regroupe les prédictions demandées sur une courte fenêtre (taille / durée) et les envoie
+ * en une seule requête au service ML, puis redistribue chaque réponse à son appelant.
+ * Si le service ne supporte pas le mode lot, le lot est réparti en appels unitaires.
+ */
+@Component
+public class PredictionBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionBatcher.class);
+
+    private final MLClient mlClient;
+    private final boolean enabled;
+    private final int maxSize;
+    private final Duration maxWait;
+    private final int fanOutConcurrency;
+    private final int maxConcurrentBatches;
+
+    // FluxSink de Flux.create : appels concurrents sérialisés sans attente active (threads des boucles Netty)
+    private volatile FluxSink<PendingPrediction> queue;
+    private volatile boolean stopped;
+    private volatile boolean remoteBatchSupported;
+    private Disposable pipeline;
+
+    public PredictionBatcher(
+            MLClient mlClient,
+            @Value("${pricing.ml.batch.enabled:true}") boolean enabled,
+            @Value("${pricing.ml.batch.remote:false}") boolean remoteBatch,
+            @Value("${pricing.ml.batch.max-size:32}") int maxSize,
+            @Value("${pricing.ml.batch.max-wait:10ms}") Duration maxWait,
+            @Value("${pricing.ml.batch.fan-out-concurrency:8}") int fanOutConcurrency,
+            @Value("${pricing.ml.batch.max-concurrent-batches:4}") int maxConcurrentBatches) {
+        this.mlClient = mlClient;
+        this.enabled = enabled;
+        this.remoteBatchSupported = remoteBatch;
+        this.maxSize = maxSize;
+        this.maxWait = maxWait;
+        this.fanOutConcurrency = fanOutConcurrency;
+        this.maxConcurrentBatches = maxConcurrentBatches;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        // bufferTimeout équitable : un lot n'est émis qu'à la demande, les prédictions attendent dans la file
+        // tant que maxConcurrentBatches lots sont en cours (pas d'erreur "lack of requests" si le service ML ralentit)
+        pipeline = Flux.<PendingPrediction>create(sink -> queue = sink)
+                .bufferTimeout(maxSize, maxWait, true)
+                .doOnDiscard(PendingPrediction.class, pending -> pending.result().tryEmitError(
+                        new RuntimeException("Regroupement des prédictions interrompu")))
+                .flatMap(this::dispatch, maxConcurrentBatches)
+                .subscribe(null, error -> {
+                    log.error("Arrêt du regroupement des prédictions, redémarrage", error);
+                    if (!stopped) {
+                        start();
+                    }
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        if (pipeline != null) {
+            pipeline.dispose();
+        }
+    }
+
+    public Mono<Double> predict(PredictionRequest request) {
+        if (mlClient.isOpen()) {
+            // Disjoncteur ouvert : inutile d'attendre la fenêtre de regroupement
+            return Mono.error(mlClient.openCircuitException());
+        }
+        if (!enabled) {
+            return mlClient.predict(request);
+        }
+        return Mono.defer(() -> {
+            PendingPrediction pending = new PendingPrediction(request, Sinks.one());
+            FluxSink<PendingPrediction> sink = queue;
+            if (sink == null || sink.isCancelled()) {
+                // Pipeline arrêté ou en cours de redémarrage : appel direct plutôt qu'une attente sans fin
+                return mlClient.predict(request);
+            }
+            sink.next(pending);
+            return pending.result().asMono();
+        });
+    }
+
+    private Mono<Void> dispatch(List<PendingPrediction> batch) {
+        if (batch.size() == 1 || !remoteBatchSupported) {
+            return fanOut(batch);
+        }
+        List<PredictionRequest> requests = new ArrayList<>(batch.size());
+        for (PendingPrediction pending : batch) {
+            requests.add(pending.request());
+        }
+        return mlClient.predictBatch(requests)
+                .switchIfEmpty(Mono.error(new RuntimeException("Réponse vide du service ML")))
+                .flatMap(responses -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        PendingPrediction pending = batch.get(i);
+                        MLClient.toPrice(responses.get(i)).subscribe(
+                                price -> pending.result().tryEmitValue(price),
+                                error -> pending.result().tryEmitError(error));
+                    }
+                    return Mono.<Void>empty();
+                })
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    log.warn("Le service ML ne supporte pas /predict/batch, passage en appels unitaires");
+                    remoteBatchSupported = false;
+                    return fanOut(batch);
+                })
+                .onErrorResume(e -> {
+                    for (PendingPrediction pending : batch) {
+                        pending.result().tryEmitError(e);
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> fanOut(List<PendingPrediction> batch) {
+        return Flux.fromIterable(batch)
+                .flatMap(pending -> mlClient.predict(pending.request())
+                        .switchIfEmpty(Mono.error(new RuntimeException("Réponse vide du service ML")))
+                        .doOnNext(price -> pending.result().tryEmitValue(price))
+                        .doOnError(error -> pending.result().tryEmitError(error))
+                        .onErrorResume(error -> Mono.empty()), fanOutConcurrency)
+                .then();
+    }
+
+    private record PendingPrediction(PredictionRequest request, Sinks.One<Double> result) {
+    }
+}
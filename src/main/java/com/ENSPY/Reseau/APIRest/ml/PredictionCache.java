@@ -0,0 +1,40 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache borné (taille + TTL) des prix prédits par le service ML.
+ * Les requêtes concurrentes portant sur les mêmes entrées partagent un seul appel en cours ;
+ * un appel en échec n'est jamais mis en cache.
+ */
+@Component
+public class PredictionCache {
+
+    private final AsyncCache<PredictionRequest, Double> cache;
+
+    public PredictionCache(
+            MeterRegistry meterRegistry,
+            @Value("${pricing.ml.predictions.cache.max-size:10000}") long maxSize,
+            @Value("${pricing.ml.predictions.cache.ttl:30m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ml.predictions");
+    }
+
+    public Mono<Double> get(PredictionRequest request, Function<PredictionRequest, Mono<Double>> loader) {
+        // suppressCancel : l'annulation d'un abonné ne doit pas annuler l'appel partagé
+        return Mono.fromFuture(() -> cache.get(request, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+}
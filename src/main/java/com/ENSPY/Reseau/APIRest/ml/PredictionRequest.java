@@ -0,0 +1,32 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entrées du modèle de prédiction, normalisées pour servir de clé de cache :
+ * les prix sont arrondis au centime (précision des colonnes DECIMAL(10, 2))
+ * et la marge à 4 décimales.
+ */
+public record PredictionRequest(String domaine, double prixConcurrent, double coutProduction, double margeVoulue) {
+
+    public static PredictionRequest of(String domaine, double prixConcurrent, double coutProduction, double margeVoulue) {
+        return new PredictionRequest(domaine, round(prixConcurrent, 100.0), round(coutProduction, 100.0), round(margeVoulue, 10_000.0));
+    }
+
+    /**
+     * Corps JSON attendu par l'API Flask
+     */
+    public Map<String, Object> toModelInput() {
+        Map<String, Object> modelInput = new LinkedHashMap<>();
+        modelInput.put("domaine", domaine);
+        modelInput.put("prix_concurrent", prixConcurrent);
+        modelInput.put("cout_production", coutProduction);
+        modelInput.put("marge_voulue", margeVoulue);
+        return modelInput;
+    }
+
+    private static double round(double value, double scale) {
+        return Math.round(value * scale) / scale;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Modèle de prédiction du prix optimal utilisé par PricingService.
+ * L'implémentation est choisie par la propriété pricing.model.type (remote ou local).
+ */
+public interface PricingModel {
+
+    /**
+     * Domaines (catégories) pris en charge par le modèle
+     */
+    Mono<Set<String>> fetchDomains();
+
+    /**
+     * Prix prédit pour des entrées dont le domaine est déjà normalisé
+     */
+    Mono<Double> predict(PredictionRequest request);
+}
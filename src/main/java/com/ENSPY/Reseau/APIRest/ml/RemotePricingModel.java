@@ -0,0 +1,33 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Modèle servi par l'API Flask distante, derrière le cache et le micro-batching des prédictions
+ */
+@Component
+public class RemotePricingModel implements PricingModel {
+
+    private final MLClient mlClient;
+    private final PredictionCache predictionCache;
+    private final PredictionBatcher predictionBatcher;
+
+    public RemotePricingModel(MLClient mlClient, PredictionCache predictionCache, PredictionBatcher predictionBatcher) {
+        this.mlClient = mlClient;
+        this.predictionCache = predictionCache;
+        this.predictionBatcher = predictionBatcher;
+    }
+
+    @Override
+    public Mono<Set<String>> fetchDomains() {
+        return mlClient.fetchDomains();
+    }
+
+    @Override
+    public Mono<Double> predict(PredictionRequest request) {
+        return predictionCache.get(request, predictionBatcher::predict);
+    }
+}
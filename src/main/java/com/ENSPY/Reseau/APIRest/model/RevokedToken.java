@@ -0,0 +1,38 @@
+package com.ENSPY.Reseau.APIRest.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Révocation d'un token (jti renseigné) ou de tous les tokens d'un utilisateur émis avant issuedBefore (jti nul).
+ * La ligne peut être purgée après expiresAt, date à laquelle les tokens concernés ont expiré d'eux-mêmes.
+ */
+@Setter
+@Getter
+@Table("revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private Long id;
+
+    @Column("jti")
+    private String jti;
+
+    @Column("user_id")
+    private UUID userId;
+
+    @Column("issued_before")
+    private LocalDateTime issuedBefore;
+
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column("revoked_at")
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,63 @@
+package com.ENSPY.Reseau.APIRest.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Insertion multi-lignes (INSERT ... VALUES (...), (...)) en une seule requête,
+ * utilisée par les fragments de repository pour les écritures en masse.
+ */
+final class BatchInsert<T> {
+
+    private final String table;
+    private final String[] columns;
+    private final Class<?>[] types;
+    private final Function<T, Object[]> valuesExtractor;
+
+    BatchInsert(String table, String[] columns, Class<?>[] types, Function<T, Object[]> valuesExtractor) {
+        if (columns.length != types.length) {
+            throw new IllegalArgumentException("Colonnes et types incohérents pour la table " + table);
+        }
+        this.table = table;
+        this.columns = columns;
+        this.types = types;
+        this.valuesExtractor = valuesExtractor;
+    }
+
+    Mono<Long> execute(DatabaseClient databaseClient, List<T> rows) {
+        if (rows.isEmpty()) {
+            return Mono.just(0L);
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql(rows.size()));
+        int index = 0;
+        for (T row : rows) {
+            Object[] values = valuesExtractor.apply(row);
+            for (int column = 0; column < columns.length; column++, index++) {
+                spec = values[column] == null
+                        ? spec.bindNull(index, types[column])
+                        : spec.bind(index, values[column]);
+            }
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private String sql(int rowCount) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+                .append(table)
+                .append(" (")
+                .append(String.join(", ", columns))
+                .append(") VALUES ");
+        int parameter = 1;
+        for (int row = 0; row < rowCount; row++) {
+            sql.append(row == 0 ? "(" : ", (");
+            for (int column = 0; column < columns.length; column++) {
+                sql.append(column == 0 ? "$" : ", $").append(parameter++);
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.ENSPY.Reseau.APIRest.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lectures paginées ou en flux des tables d'historique (optimal_prices, tarification_prices),
+ * qui partagent les colonnes id, product_id, user_id et calculated_at.
+ */
+final class HistoryFinder<T> {
+
+    private final String table;
+    private final Class<T> entityClass;
+
+    HistoryFinder(String table, Class<T> entityClass) {
+        this.table = table;
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * Calculs les plus récents d'abord, strictement après le curseur (afterCalculatedAt, afterId) s'il est fourni
+     */
+    Flux<T> findPage(R2dbcEntityTemplate template, UUID userId, UUID productId, LocalDateTime from, LocalDateTime to,
+                     LocalDateTime afterCalculatedAt, UUID afterId, int limit) {
+        Criteria criteria = Criteria.where("user_id").is(userId);
+        if (productId != null) {
+            criteria = criteria.and("product_id").is(productId);
+        }
+        if (from != null) {
+            criteria = criteria.and("calculated_at").greaterThanOrEquals(from);
+        }
+        if (to != null) {
+            criteria = criteria.and("calculated_at").lessThan(to);
+        }
+        if (afterCalculatedAt != null && afterId != null) {
+            criteria = criteria.and(Criteria.where("calculated_at").lessThan(afterCalculatedAt)
+                    .or(Criteria.where("calculated_at").is(afterCalculatedAt).and("id").lessThan(afterId)));
+        }
+        Query query = Query.query(criteria)
+                .sort(Sort.by(Sort.Order.desc("calculated_at"), Sort.Order.desc("id")))
+                .limit(limit);
+        return template.select(query, entityClass);
+    }
+
+    /**
+     * Dernier calcul de chaque produit (DISTINCT ON), produits triés par identifiant, après afterProductId s'il est fourni
+     */
+    Flux<T> findLatestPerProduct(R2dbcEntityTemplate template, UUID userId, UUID productId, LocalDateTime from,
+                                 LocalDateTime to, UUID afterProductId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT DISTINCT ON (product_id) * FROM ").append(table);
+        List<Object> parameters = where(sql, userId, productId, from, to);
+        if (afterProductId != null) {
+            parameters.add(afterProductId);
+            sql.append(" AND product_id > $").append(parameters.size());
+        }
+        parameters.add(limit);
+        sql.append(" ORDER BY product_id, calculated_at DESC, id DESC LIMIT $").append(parameters.size());
+        return bind(template.getDatabaseClient().sql(sql.toString()), parameters)
+                .map((row, metadata) -> template.getConverter().read(entityClass, row, metadata))
+                .all();
+    }
+
+    /**
+     * Tout l'historique filtré, calculs les plus récents d'abord, lu par blocs de fetchSize lignes
+     * au rythme de la consommation (export) : la mémoire utilisée ne dépend pas du nombre de lignes
+     */
+    Flux<T> stream(R2dbcEntityTemplate template, UUID userId, UUID productId, LocalDateTime from, LocalDateTime to,
+                   int fetchSize) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table);
+        List<Object> parameters = where(sql, userId, productId, from, to);
+        sql.append(" ORDER BY calculated_at DESC, id DESC");
+        return bind(template.getDatabaseClient().sql(sql.toString()), parameters)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> template.getConverter().read(entityClass, row, metadata))
+                .all();
+    }
+
+    // Clause WHERE commune (paramètres $1, $2... dans l'ordre de la liste retournée)
+    private static List<Object> where(StringBuilder sql, UUID userId, UUID productId, LocalDateTime from, LocalDateTime to) {
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(userId);
+        sql.append(" WHERE user_id = $1");
+        if (productId != null) {
+            parameters.add(productId);
+            sql.append(" AND product_id = $").append(parameters.size());
+        }
+        if (from != null) {
+            parameters.add(from);
+            sql.append(" AND calculated_at >= $").append(parameters.size());
+        }
+        if (to != null) {
+            parameters.add(to);
+            sql.append(" AND calculated_at < $").append(parameters.size());
+        }
+        return parameters;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, List<Object> parameters) {
+        for (int i = 0; i < parameters.size(); i++) {
+            spec = spec.bind(i, parameters.get(i));
+        }
+        return spec;
+    }
+}
@@ -7,7 +7,7 @@ import reactor.core.publisher.Mono;
 
 import java.util.UUID;
 
-public interface OptimalPriceResultRepository extends ReactiveCrudRepository<OptimalPriceResult, UUID> {
+public interface OptimalPriceResultRepository extends ReactiveCrudRepository<OptimalPriceResult, UUID>, OptimalPriceResultRepositoryCustom {
     Flux<OptimalPriceResult> findByUserIdOrderByCalculatedAtDesc(UUID userId);
     Flux<OptimalPriceResult> findByProductId(UUID productId);
     Mono<Void> deleteByUserId(UUID userId);
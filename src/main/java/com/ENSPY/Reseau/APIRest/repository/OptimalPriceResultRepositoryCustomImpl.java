@@ -0,0 +1,65 @@
+package com.ENSPY.Reseau.APIRest.repository;
+
+import com.ENSPY.Reseau.APIRest.model.OptimalPriceResult;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class OptimalPriceResultRepositoryCustomImpl implements OptimalPriceResultRepositoryCustom {
+
+    private static final BatchInsert<OptimalPriceResult> INSERT = new BatchInsert<>(
+            "optimal_prices",
+            new String[]{"id", "product_id", "product_name", "prix_des_concurrents", "optimal_price",
+                    "potential_revenue", "margin", "user_id", "calculated_at"},
+            new Class<?>[]{UUID.class, UUID.class, String.class, Double.class, Double.class,
+                    Double.class, Double.class, UUID.class, LocalDateTime.class},
+            result -> new Object[]{result.getId(), result.getProductId(), result.getProductName(),
+                    result.getPrixDesConcurrents(), result.getOptimalPrice(), result.getPotentialRevenue(),
+                    result.getMargin(), result.getUserId(), result.getCalculatedAt()});
+
+    private static final HistoryFinder<OptimalPriceResult> HISTORY = new HistoryFinder<>("optimal_prices", OptimalPriceResult.class);
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcEntityTemplate template;
+
+    public OptimalPriceResultRepositoryCustomImpl(DatabaseClient databaseClient, R2dbcEntityTemplate template) {
+        this.databaseClient = databaseClient;
+        this.template = template;
+    }
+
+    @Override
+    public Flux<OptimalPriceResult> insertAll(List<OptimalPriceResult> results) {
+        LocalDateTime now = LocalDateTime.now();
+        for (OptimalPriceResult result : results) {
+            if (result.getId() == null) {
+                result.setId(UUID.randomUUID());
+            }
+            if (result.getCalculatedAt() == null) {
+                result.setCalculatedAt(now);
+            }
+        }
+        return INSERT.execute(databaseClient, results)
+                .thenMany(Flux.fromIterable(results));
+    }
+
+    @Override
+    public Flux<OptimalPriceResult> findHistory(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to,
+                                                LocalDateTime afterCalculatedAt, UUID afterId, int limit) {
+        return HISTORY.findPage(template, userId, productId, from, to, afterCalculatedAt, afterId, limit);
+    }
+
+    @Override
+    public Flux<OptimalPriceResult> findLatestPerProduct(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to,
+                                                         UUID afterProductId, int limit) {
+        return HISTORY.findLatestPerProduct(template, userId, productId, from, to, afterProductId, limit);
+    }
+
+    @Override
+    public Flux<OptimalPriceResult> streamHistory(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to, int fetchSize) {
+        return HISTORY.stream(template, userId, productId, from, to, fetchSize);
+    }
+}
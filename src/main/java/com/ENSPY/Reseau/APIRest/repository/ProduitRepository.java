@@ -8,8 +8,11 @@ import reactor.core.publisher.Mono;
 
 import java.util.UUID;
 
-public interface ProduitRepository extends ReactiveCrudRepository<Produit, UUID> {
+public interface ProduitRepository extends ReactiveCrudRepository<Produit, UUID>, ProduitRepositoryCustom {
     Flux<Produit> findByUserIdOrderByUpdatedAtDesc(UUID userId);
+    // Produits de l'utilisateur parmi ids (clé primaire), les plus récemment modifiés d'abord
+    @Query("SELECT * FROM produits WHERE user_id = :userId AND id = ANY(:ids) ORDER BY updated_at DESC")
+    Flux<Produit> findByUserIdAndIdIn(UUID userId, UUID[] ids);
     Mono<Void> deleteByUserId(UUID userId);
     @Query("SELECT * FROM produits WHERE id = CAST(:id AS uuid)")
     Mono<Produit> findById(String id);
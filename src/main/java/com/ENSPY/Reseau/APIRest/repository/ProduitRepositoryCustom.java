@@ -0,0 +1,30 @@
+package com.ENSPY.Reseau.APIRest.repository;
+
+import com.ENSPY.Reseau.APIRest.model.Produit;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ProduitRepositoryCustom {
+
+    /**
+     * Page de produits de l'utilisateur triés par (updated_at, id) décroissants, strictement après le curseur
+     * (afterUpdatedAt, afterId) s'il est fourni. category, type et columns (colonnes lues) sont optionnels.
+     */
+    Flux<Produit> findPage(UUID userId, String category, String type,
+                           LocalDateTime afterUpdatedAt, UUID afterId, int limit, Collection<String> columns);
+
+    /**
+     * Insère les produits en une seule requête multi-lignes ; id, createdAt et updatedAt sont renseignés s'ils manquent
+     */
+    Flux<Produit> insertAll(List<Produit> produits);
+
+    /**
+     * Tous les produits de l'utilisateur (category et type optionnels), les plus récemment modifiés d'abord,
+     * lus par blocs de fetchSize lignes au rythme de la consommation
+     */
+    Flux<Produit> streamByUser(UUID userId, String category, String type, int fetchSize);
+}
@@ -0,0 +1,100 @@
+package com.ENSPY.Reseau.APIRest.repository;
+
+import com.ENSPY.Reseau.APIRest.model.Produit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public class ProduitRepositoryCustomImpl implements ProduitRepositoryCustom {
+
+    private static final BatchInsert<Produit> INSERT = new BatchInsert<>(
+            "produits",
+            new String[]{"id", "name", "description", "date_lancement", "prix_des_concurrents", "cout_de_production",
+                    "desired_margin", "category", "type", "stock", "user_id", "created_at", "updated_at"},
+            new Class<?>[]{UUID.class, String.class, String.class, LocalDateTime.class, Double.class, Double.class,
+                    Double.class, String.class, String.class, Integer.class, UUID.class, LocalDateTime.class, LocalDateTime.class},
+            produit -> new Object[]{produit.getId(), produit.getName(), produit.getDescription(), produit.getDateLancement(),
+                    produit.getPrixDesConcurrents(), produit.getCoutDeProduction(), produit.getDesiredMargin(),
+                    produit.getCategory(), produit.getType(), produit.getStock(), produit.getUserId(),
+                    produit.getCreatedAt(), produit.getUpdatedAt()});
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcEntityTemplate template;
+
+    public ProduitRepositoryCustomImpl(DatabaseClient databaseClient, R2dbcEntityTemplate template) {
+        this.databaseClient = databaseClient;
+        this.template = template;
+    }
+
+    @Override
+    public Flux<Produit> findPage(UUID userId, String category, String type,
+                                  LocalDateTime afterUpdatedAt, UUID afterId, int limit, Collection<String> columns) {
+        Criteria criteria = Criteria.where("user_id").is(userId);
+        if (category != null) {
+            criteria = criteria.and("category").is(category);
+        }
+        if (type != null) {
+            criteria = criteria.and("type").is(type);
+        }
+        if (afterUpdatedAt != null && afterId != null) {
+            // Keyset : (updated_at, id) < (curseur), servi par l'index (user_id, updated_at DESC, id DESC)
+            criteria = criteria.and(Criteria.where("updated_at").lessThan(afterUpdatedAt)
+                    .or(Criteria.where("updated_at").is(afterUpdatedAt).and("id").lessThan(afterId)));
+        }
+        Query query = Query.query(criteria)
+                .sort(Sort.by(Sort.Order.desc("updated_at"), Sort.Order.desc("id")))
+                .limit(limit);
+        if (columns != null && !columns.isEmpty()) {
+            query = query.columns(columns);
+        }
+        return template.select(query, Produit.class);
+    }
+
+    @Override
+    public Flux<Produit> insertAll(List<Produit> produits) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Produit produit : produits) {
+            if (produit.getId() == null) {
+                produit.setId(UUID.randomUUID());
+            }
+            if (produit.getCreatedAt() == null) {
+                produit.setCreatedAt(now);
+            }
+            if (produit.getUpdatedAt() == null) {
+                produit.setUpdatedAt(now);
+            }
+        }
+        return INSERT.execute(databaseClient, produits)
+                .thenMany(Flux.fromIterable(produits));
+    }
+
+    @Override
+    public Flux<Produit> streamByUser(UUID userId, String category, String type, int fetchSize) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM produits WHERE user_id = :userId");
+        if (category != null) {
+            sql.append(" AND category = :category");
+        }
+        if (type != null) {
+            sql.append(" AND type = :type");
+        }
+        sql.append(" ORDER BY updated_at DESC, id DESC");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("userId", userId);
+        if (category != null) {
+            spec = spec.bind("category", category);
+        }
+        if (type != null) {
+            spec = spec.bind("type", type);
+        }
+        return spec.filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> template.getConverter().read(Produit.class, row, metadata))
+                .all();
+    }
+}
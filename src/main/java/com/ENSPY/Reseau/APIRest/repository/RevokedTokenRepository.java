@@ -0,0 +1,13 @@
+package com.ENSPY.Reseau.APIRest.repository;
+
+import com.ENSPY.Reseau.APIRest.model.RevokedToken;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface RevokedTokenRepository extends ReactiveCrudRepository<RevokedToken, Long> {
+    Flux<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime revokedAfter, LocalDateTime expiresAfter);
+    Mono<Void> deleteByExpiresAtBefore(LocalDateTime expiresAt);
+}
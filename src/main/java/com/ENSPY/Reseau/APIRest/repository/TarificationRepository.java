@@ -7,7 +7,7 @@ import reactor.core.publisher.Mono;
 
 import java.util.UUID;
 
-public interface TarificationRepository extends ReactiveCrudRepository<TarificationResult, UUID> {
+public interface TarificationRepository extends ReactiveCrudRepository<TarificationResult, UUID>, TarificationRepositoryCustom {
     Flux<TarificationResult> findByUserIdOrderByCalculatedAtDesc(UUID userId);
     Flux<TarificationResult> findByProductId(UUID productId);
     Mono<Void> deleteByUserId(UUID userId);
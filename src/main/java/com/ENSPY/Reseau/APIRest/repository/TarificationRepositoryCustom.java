@@ -0,0 +1,29 @@
+package com.ENSPY.Reseau.APIRest.repository;
+
+import com.ENSPY.Reseau.APIRest.model.TarificationResult;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TarificationRepositoryCustom {
+    Flux<TarificationResult> insertAll(List<TarificationResult> results);
+
+    /**
+     * Historique de l'utilisateur, calculs les plus récents d'abord ; filtres optionnels, curseur (afterCalculatedAt, afterId)
+     */
+    Flux<TarificationResult> findHistory(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to,
+                                         LocalDateTime afterCalculatedAt, UUID afterId, int limit);
+
+    /**
+     * Dernier calcul de chaque produit de l'utilisateur, produits après afterProductId
+     */
+    Flux<TarificationResult> findLatestPerProduct(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to,
+                                                  UUID afterProductId, int limit);
+
+    /**
+     * Tout l'historique filtré de l'utilisateur, calculs les plus récents d'abord, lu par blocs de fetchSize lignes
+     */
+    Flux<TarificationResult> streamHistory(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to, int fetchSize);
+}
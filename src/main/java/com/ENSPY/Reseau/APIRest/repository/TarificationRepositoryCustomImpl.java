@@ -0,0 +1,65 @@
+package com.ENSPY.Reseau.APIRest.repository;
+
+import com.ENSPY.Reseau.APIRest.model.TarificationResult;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class TarificationRepositoryCustomImpl implements TarificationRepositoryCustom {
+
+    private static final BatchInsert<TarificationResult> INSERT = new BatchInsert<>(
+            "tarification_prices",
+            new String[]{"id", "product_id", "product_name", "prix_des_concurrents", "tarification_price",
+                    "potential_revenue", "margin", "user_id", "time_in_months", "calculated_at"},
+            new Class<?>[]{UUID.class, UUID.class, String.class, Double.class, Double.class,
+                    Double.class, Double.class, UUID.class, Double.class, LocalDateTime.class},
+            result -> new Object[]{result.getId(), result.getProductId(), result.getProductName(),
+                    result.getPrixDesConcurrents(), result.getTarificationPrice(), result.getPotentialRevenue(),
+                    result.getMargin(), result.getUserId(), result.getTimeInMonths(), result.getCalculatedAt()});
+
+    private static final HistoryFinder<TarificationResult> HISTORY = new HistoryFinder<>("tarification_prices", TarificationResult.class);
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcEntityTemplate template;
+
+    public TarificationRepositoryCustomImpl(DatabaseClient databaseClient, R2dbcEntityTemplate template) {
+        this.databaseClient = databaseClient;
+        this.template = template;
+    }
+
+    @Override
+    public Flux<TarificationResult> insertAll(List<TarificationResult> results) {
+        LocalDateTime now = LocalDateTime.now();
+        for (TarificationResult result : results) {
+            if (result.getId() == null) {
+                result.setId(UUID.randomUUID());
+            }
+            if (result.getCalculatedAt() == null) {
+                result.setCalculatedAt(now);
+            }
+        }
+        return INSERT.execute(databaseClient, results)
+                .thenMany(Flux.fromIterable(results));
+    }
+
+    @Override
+    public Flux<TarificationResult> findHistory(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to,
+                                                LocalDateTime afterCalculatedAt, UUID afterId, int limit) {
+        return HISTORY.findPage(template, userId, productId, from, to, afterCalculatedAt, afterId, limit);
+    }
+
+    @Override
+    public Flux<TarificationResult> findLatestPerProduct(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to,
+                                                         UUID afterProductId, int limit) {
+        return HISTORY.findLatestPerProduct(template, userId, productId, from, to, afterProductId, limit);
+    }
+
+    @Override
+    public Flux<TarificationResult> streamHistory(UUID userId, UUID productId, LocalDateTime from, LocalDateTime to, int fetchSize) {
+        return HISTORY.stream(template, userId, productId, from, to, fetchSize);
+    }
+}
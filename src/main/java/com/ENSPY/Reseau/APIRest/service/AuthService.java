@@ -3,16 +3,18 @@ package com.ENSPY.Reseau.APIRest.service;
 import com.ENSPY.Reseau.APIRest.config.JwtTokenProvider;
 import com.ENSPY.Reseau.APIRest.model.User;
 import com.ENSPY.Reseau.APIRest.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -20,18 +22,24 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Service
-public class AuthService implements ReactiveUserDetailsService {
+public class AuthService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final UserCache userCache;
+    private final TokenRevocationService tokenRevocationService;
     private ReactiveAuthenticationManager authenticationManager;
     private JwtTokenProvider jwtTokenProvider;
 
     public AuthService(
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordHasher passwordHasher,
+            UserCache userCache,
+            TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.userCache = userCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Autowired
@@ -51,8 +59,7 @@ public class AuthService implements ReactiveUserDetailsService {
                 .flatMap(authentication -> {
                     ReactiveSecurityContextHolder.getContext()
                             .contextWrite(ctx -> ctx.put(Authentication.class, authentication));
-                    return userRepository.findByEmail(email)
-                            .switchIfEmpty(Mono.error(new UsernameNotFoundException("User not found with email: " + email)))
+                    return findUserByEmail(email)
                             .flatMap(user -> {
                                 String token = jwtTokenProvider.createToken(user.getUsername(), String.valueOf(user.getId()));
                                 Map<String, Object> userMap = new HashMap<>();
@@ -72,28 +79,69 @@ public class AuthService implements ReactiveUserDetailsService {
                 });
     }
 
+    /**
+     * Déconnexion : le token est révoqué jusqu'à son expiration
+     */
+    public Mono<Void> logout(String token) {
+        Claims claims = token != null ? jwtTokenProvider.parseClaims(token) : null;
+        if (claims == null) {
+            return Mono.error(new RuntimeException("Token invalide"));
+        }
+        return tokenRevocationService.revoke(claims);
+    }
+
     public Mono<User> register(User user) {
         return userRepository.existsByEmail(user.getEmail())
                 .flatMap(exists -> {
                     if (exists) {
                         return Mono.error(new RuntimeException("Email déjà utilisé"));
                     }
-                    user.setPassword(passwordEncoder.encode(user.getPassword()));
-                    return userRepository.save(user);
+                    return passwordHasher.encode(user.getPassword())
+                            .flatMap(encodedPassword -> {
+                                user.setPassword(encodedPassword);
+                                return userRepository.save(user);
+                            });
                 });
     }
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
-        return userRepository.findByEmail(username)
-                .switchIfEmpty(Mono.error(new UsernameNotFoundException("User not found with email: " + username)))
+        return findUserByEmail(username)
                 .cast(UserDetails.class);
     }
 
+    /**
+     * Enregistre le hachage ré-encodé au coût courant, après une connexion réussie avec un hachage plus faible.
+     * L'utilisateur est relu en base : l'instance du cache, partagée entre requêtes, n'est jamais modifiée.
+     */
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails userDetails, String newPassword) {
+        return userRepository.findByEmail(userDetails.getUsername())
+                .flatMap(user -> {
+                    user.setPassword(newPassword);
+                    return userRepository.save(user);
+                })
+                .doOnNext(savedUser -> evictUser(savedUser.getEmail()))
+                .cast(UserDetails.class);
+    }
+
+    /**
+     * Utilisateur courant : le principal porté par le contexte de sécurité, sans requête en base
+     */
     public Mono<User> getUserFromContext() {
         return ReactiveSecurityContextHolder.getContext()
-                .map(context -> context.getAuthentication().getName())
-                .flatMap(email -> userRepository.findByEmail(email)
-                        .switchIfEmpty(Mono.error(new UsernameNotFoundException("User not found with email: " + email))));
+                .map(SecurityContext::getAuthentication)
+                .flatMap(authentication -> authentication.getPrincipal() instanceof User user
+                        ? Mono.just(user)
+                        : findUserByEmail(authentication.getName()));
+    }
+
+    public void evictUser(String email) {
+        userCache.invalidate(email);
+    }
+
+    private Mono<User> findUserByEmail(String email) {
+        return userCache.get(email, userRepository::findByEmail)
+                .switchIfEmpty(Mono.error(new UsernameNotFoundException("User not found with email: " + email)));
     }
 }
\ No newline at end of file
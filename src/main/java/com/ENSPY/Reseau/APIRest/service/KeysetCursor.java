@@ -0,0 +1,34 @@
+package com.ENSPY.Reseau.APIRest.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Curseur opaque de pagination par clé : dernière position (date de tri, optionnelle) et identifiant
+ * de la page précédente, encodés en Base64 URL
+ */
+public record KeysetCursor(LocalDateTime position, UUID id) {
+
+    public String encode() {
+        String value = (position != null ? position.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Curseur décodé, ou null si cursor est absent ; IllegalArgumentException s'il est invalide
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            LocalDateTime position = parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]);
+            return new KeysetCursor(position, UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ENSPY.Reseau.APIRest.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Encodage des mots de passe sur le pool dédié au hachage, jamais sur les threads Netty
+ * (la vérification à la connexion y est faite par l'AuthenticationManager).
+ * Lorsque la file du pool est pleine, le Mono échoue avec une RejectedExecutionException.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler passwordHashingScheduler;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Qualifier("passwordHashingScheduler") Scheduler passwordHashingScheduler) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+    }
+
+    public Mono<String> encode(String rawPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(rawPassword))
+                .subscribeOn(passwordHashingScheduler);
+    }
+}
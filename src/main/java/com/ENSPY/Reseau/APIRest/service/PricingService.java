@@ -1,240 +1,238 @@
 package com.ENSPY.Reseau.APIRest.service;
 
+import com.ENSPY.Reseau.APIRest.config.ServerTiming;
+import com.ENSPY.Reseau.APIRest.dto.HistoryFilter;
+import com.ENSPY.Reseau.APIRest.dto.HistoryPage;
+import com.ENSPY.Reseau.APIRest.dto.PricingBatchItem;
+import com.ENSPY.Reseau.APIRest.ml.DomainCatalogue;
+import com.ENSPY.Reseau.APIRest.ml.MLClient;
+import com.ENSPY.Reseau.APIRest.ml.PredictionRequest;
+import com.ENSPY.Reseau.APIRest.ml.PricingModel;
 import com.ENSPY.Reseau.APIRest.model.OptimalPriceResult;
 import com.ENSPY.Reseau.APIRest.model.Produit;
-import com.ENSPY.Reseau.APIRest.model.User;
 import com.ENSPY.Reseau.APIRest.repository.OptimalPriceResultRepository;
+import com.ENSPY.Reseau.APIRest.repository.ProduitRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class PricingService {
 
+    private static final Logger log = LoggerFactory.getLogger(PricingService.class);
+
+    private static final Duration BATCH_FLUSH_INTERVAL = Duration.ofMillis(200);
+
     private final OptimalPriceResultRepository optimalPriceResultRepository;
+    private final ProduitRepository produitRepository;
     private final ProduitService produitService;
     private final AuthService authService;
-    private final WebClient webClient;
+    private final DomainCatalogue domainCatalogue;
+    private final PricingModel pricingModel;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${pricing.batch.concurrency:8}")
+    private int batchConcurrency;
+
+    @Value("${pricing.batch.insert-size:200}")
+    private int batchInsertSize;
+
+    @Value("${history.page.max-size:500}")
+    private int historyMaxPageSize;
+
+    @Value("${export.fetch-size:1000}")
+    private int exportFetchSize;
 
     public PricingService(
             OptimalPriceResultRepository optimalPriceResultRepository,
+            ProduitRepository produitRepository,
             ProduitService produitService,
-            AuthService authService) {
+            AuthService authService,
+            DomainCatalogue domainCatalogue,
+            PricingModel pricingModel,
+            MeterRegistry meterRegistry) {
         this.optimalPriceResultRepository = optimalPriceResultRepository;
+        this.produitRepository = produitRepository;
         this.produitService = produitService;
         this.authService = authService;
-        this.webClient = WebClient.builder()
-                .baseUrl("https://pricingapibackend2.onrender.com")
-                .build();
+        this.domainCatalogue = domainCatalogue;
+        this.pricingModel = pricingModel;
+        this.meterRegistry = meterRegistry;
     }
 
     public Mono<OptimalPriceResult> calculateOptimalPrice(UUID productId) {
-        return produitService.getProductById(productId)
-                .zipWith(authService.getUserFromContext())
-                .flatMap(tuple -> {
-                    Produit produit = tuple.getT1();
-                    User currentUser = tuple.getT2();
-
-                    // Validation des données
-                    if (produit.getCategory() == null || produit.getCategory().trim().isEmpty()) {
-                        return Mono.error(new RuntimeException("La catégorie du produit est manquante"));
-                    }
-                    if (produit.getPrixDesConcurrents() == null || produit.getPrixDesConcurrents() <= 0) {
-                        return Mono.error(new RuntimeException("Le prix des concurrents doit être positif"));
-                    }
-                    if (produit.getCoutDeProduction() == null || produit.getCoutDeProduction() <= 0) {
-                        return Mono.error(new RuntimeException("Le coût de production doit être positif"));
-                    }
-                    if (produit.getDesiredMargin() == null || produit.getDesiredMargin() < 0) {
-                        return Mono.error(new RuntimeException("La marge désirée doit être positive ou nulle"));
-                    }
-
-                    // Normaliser la marge en format décimal
-                    double margeDecimale = produit.getDesiredMargin();
-                    if (margeDecimale > 1.0) {
-                        margeDecimale = margeDecimale / 100.0;
-                    }
-
-                    // Normaliser le domaine
-                    double finalMargeDecimale = margeDecimale;
-                    return normalizeCategory(produit.getCategory().trim())
-                            .flatMap(normalizedCategory -> {
-                                // Créer la requête pour l'API Flask
-                                Map<String, Object> modelInput = new HashMap<>();
-                                modelInput.put("domaine", normalizedCategory);
-                                modelInput.put("prix_concurrent", produit.getPrixDesConcurrents().doubleValue());
-                                modelInput.put("cout_production", produit.getCoutDeProduction().doubleValue());
-                                modelInput.put("marge_voulue", finalMargeDecimale);
-
-                                // Loguer la requête envoyée
-                                System.out.println("=== DONNÉES ENVOYÉES AU SERVICE ML ===");
-                                System.out.println("domaine: " + modelInput.get("domaine"));
-                                System.out.println("prix_concurrent: " + modelInput.get("prix_concurrent"));
-                                System.out.println("cout_production: " + modelInput.get("cout_production"));
-                                System.out.println("marge_voulue: " + modelInput.get("marge_voulue"));
-                                System.out.println("=====================================");
-
-                                return callMLPredictionService(modelInput)
-                                        .onErrorResume(e -> {
-                                            System.err.println("Erreur lors de l'appel au service ML: " + e.getMessage());
-                                            double fallbackPrice = produit.getCoutDeProduction() * (1 + finalMargeDecimale);
-                                            System.err.println("Utilisation du prix de secours: " + fallbackPrice);
-                                            return Mono.just(fallbackPrice);
-                                        })
-                                        .flatMap(optimalPrice -> {
-                                            double potentialRevenue = optimalPrice * (produit.getStock() != null ? produit.getStock() : 0);
-                                            double margin = ((optimalPrice - produit.getCoutDeProduction()) / optimalPrice) * 100;
-
-                                            OptimalPriceResult result = new OptimalPriceResult();
-                                            result.setProductId(produit.getId());
-                                            result.setProductName(produit.getName());
-                                            result.setPrixDesConcurrents(produit.getPrixDesConcurrents());
-                                            result.setOptimalPrice(optimalPrice);
-                                            result.setPotentialRevenue(potentialRevenue);
-                                            result.setMargin(margin);
-                                            result.setUserId(currentUser.getId());
-
-                                            return optimalPriceResultRepository.save(result);
-                                        });
-                            });
-                });
+        return ServerTiming.stage("product", produitService.getProductById(productId))
+                .zipWith(ServerTiming.stage("auth", authService.getUserFromContext()))
+                .flatMap(tuple -> priceProduct(tuple.getT1(), tuple.getT2().getId()))
+                .flatMap(result -> ServerTiming.stage("save", optimalPriceResultRepository.save(result)));
     }
 
-    private Mono<String> normalizeCategory(String category) {
-        return webClient.get()
-                .uri("/domains")
-                .retrieve()
-                .bodyToMono(Map.class)
-                .map(response -> {
-                    Map<String, Object> domains = (Map<String, Object>) response.get("domaines_disponibles");
-                    for (String domain : domains.keySet()) {
-                        if (category.equalsIgnoreCase(domain)) {
-                            return domain;
-                        }
-                    }
-                    throw new RuntimeException("Domaine non reconnu: " + category + ". Domaines disponibles: " + domains.keySet());
-                })
-                .onErrorResume(e -> Mono.error(new RuntimeException("Erreur lors de la normalisation du domaine: " + e.getMessage())));
+    /**
+     * Calcule le prix optimal d'une liste de produits (ou de tout le catalogue si la liste est vide)
+     * et sauvegarde les résultats par lots au fil de l'eau. Un produit demandé mais introuvable
+     * (ou appartenant à un autre utilisateur) est signalé par une erreur dans la réponse.
+     */
+    public Flux<PricingBatchItem> calculateOptimalPrices(List<UUID> productIds) {
+        Set<UUID> selection = new LinkedHashSet<>(productIds == null ? List.of() : productIds);
+        selection.remove(null);
+        return authService.getUserFromContext()
+                .flatMapMany(currentUser -> {
+                    // Sélection lue par clé primaire ; catalogue complet si la liste est vide
+                    Flux<Produit> produits = selection.isEmpty()
+                            ? produitRepository.findByUserIdOrderByUpdatedAtDesc(currentUser.getId())
+                            : produitRepository.findByUserIdAndIdIn(currentUser.getId(), selection.toArray(UUID[]::new));
+                    Set<UUID> found = ConcurrentHashMap.newKeySet();
+                    Flux<PricingBatchItem> priced = produits
+                            .doOnNext(produit -> found.add(produit.getId()))
+                            .flatMap(produit -> priceProduct(produit, currentUser.getId())
+                                    .map(PricingBatchItem::success)
+                                    .onErrorResume(e -> Mono.just(PricingBatchItem.error(produit.getId(), e.getMessage()))),
+                                    batchConcurrency);
+                    Flux<PricingBatchItem> missing = Flux.defer(() -> Flux.fromIterable(selection)
+                            .filter(id -> !found.contains(id))
+                            .map(id -> PricingBatchItem.error(id, "Produit non trouvé ou accès non autorisé")));
+                    return Flux.concat(priced, missing)
+                            .bufferTimeout(batchInsertSize, BATCH_FLUSH_INTERVAL)
+                            .concatMap(items -> {
+                                List<OptimalPriceResult> results = new ArrayList<>(items.size());
+                                for (PricingBatchItem item : items) {
+                                    if (item.getResult() != null) {
+                                        results.add(item.getResult());
+                                    }
+                                }
+                                return optimalPriceResultRepository.insertAll(results)
+                                        .thenMany(Flux.fromIterable(items));
+                            });
+                });
     }
 
-    private Mono<Double> callMLPredictionService(Map<String, Object> modelInput) {
-        return webClient.post()
-                .uri("/predict")
-                .header("Content-Type", "application/json")
-                .bodyValue(modelInput)
-                .retrieve()
-                .onStatus(
-                        status -> status.is4xxClientError(),
-                        response -> response.bodyToMono(String.class)
-                                .flatMap(errorBody -> Mono.error(new RuntimeException("Erreur 4xx: " + errorBody)))
-                )
-                .onStatus(
-                        status -> status.is5xxServerError(),
-                        response -> response.bodyToMono(String.class)
-                                .flatMap(errorBody -> Mono.error(new RuntimeException("Erreur 5xx: " + errorBody)))
-                )
-                .bodyToMono(MLPredictionResponse.class)
-                .flatMap(response -> {
-                    System.out.println("=== RÉPONSE DE L'API FLASK ===");
-                    System.out.println("Statut: " + response.getStatut());
-                    System.out.println("Prix prédit: " + response.getPrixPredit());
-                    System.out.println("=============================");
-                    if ("success".equals(response.getStatut())) {
-                        double predictedPrice = response.getPrixPredit();
-                        if (predictedPrice <= 0) {
-                            return Mono.error(new RuntimeException("Prix prédit invalide: " + predictedPrice));
-                        }
-                        return Mono.just(predictedPrice);
-                    }
-                    return Mono.error(new RuntimeException("La prédiction ML a échoué avec le statut: " + response.getStatut()));
+    /**
+     * Calcule (sans le sauvegarder) le prix optimal d'un produit de l'utilisateur
+     */
+    private Mono<OptimalPriceResult> priceProduct(Produit produit, UUID userId) {
+        // Validation des données
+        if (produit.getCategory() == null || produit.getCategory().trim().isEmpty()) {
+            return Mono.error(new RuntimeException("La catégorie du produit est manquante"));
+        }
+        if (produit.getPrixDesConcurrents() == null || produit.getPrixDesConcurrents() <= 0) {
+            return Mono.error(new RuntimeException("Le prix des concurrents doit être positif"));
+        }
+        if (produit.getCoutDeProduction() == null || produit.getCoutDeProduction() <= 0) {
+            return Mono.error(new RuntimeException("Le coût de production doit être positif"));
+        }
+        if (produit.getDesiredMargin() == null || produit.getDesiredMargin() < 0) {
+            return Mono.error(new RuntimeException("La marge désirée doit être positive ou nulle"));
+        }
+
+        // Normaliser la marge en format décimal
+        double margeDecimale = produit.getDesiredMargin();
+        if (margeDecimale > 1.0) {
+            margeDecimale = margeDecimale / 100.0;
+        }
+
+        // Normaliser le domaine (recherche dans le catalogue local)
+        double finalMargeDecimale = margeDecimale;
+        return ServerTiming.stage("domains", domainCatalogue.resolve(produit.getCategory().trim()))
+                .flatMap(normalizedCategory -> {
+                    // Entrées du modèle, normalisées (clé du cache des prédictions distantes)
+                    PredictionRequest predictionRequest = PredictionRequest.of(
+                            normalizedCategory,
+                            produit.getPrixDesConcurrents(),
+                            produit.getCoutDeProduction(),
+                            finalMargeDecimale);
+
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return ServerTiming.stage("predict", pricingModel.predict(predictionRequest))
+                            .doOnNext(price -> recordPrediction(sample, "success", "none"))
+                            .onErrorResume(e -> {
+                                recordPrediction(sample, "fallback", MLClient.failureReason(e));
+                                double fallbackPrice = produit.getCoutDeProduction() * (1 + finalMargeDecimale);
+                                log.warn("Prix de secours {} pour le produit {} (service ML: {})",
+                                        fallbackPrice, produit.getId(), e.getMessage());
+                                return Mono.just(fallbackPrice);
+                            })
+                            .map(optimalPrice -> {
+                                double potentialRevenue = optimalPrice * (produit.getStock() != null ? produit.getStock() : 0);
+                                double margin = ((optimalPrice - produit.getCoutDeProduction()) / optimalPrice) * 100;
+
+                                OptimalPriceResult result = new OptimalPriceResult();
+                                result.setProductId(produit.getId());
+                                result.setProductName(produit.getName());
+                                result.setPrixDesConcurrents(produit.getPrixDesConcurrents());
+                                result.setOptimalPrice(optimalPrice);
+                                result.setPotentialRevenue(potentialRevenue);
+                                result.setMargin(margin);
+                                result.setUserId(userId);
+                                return result;
+                            });
                 });
     }
 
-    public Flux<OptimalPriceResult> getPricingHistory() {
-        return authService.getUserFromContext()
-                .flatMapMany(user -> optimalPriceResultRepository.findByUserIdOrderByCalculatedAtDesc(user.getId()));
+    private void recordPrediction(Timer.Sample sample, String outcome, String reason) {
+        // Durée vue par le calcul de prix (cache, regroupement en lots et appel distant compris)
+        sample.stop(Timer.builder("pricing.ml.prediction.duration")
+                .description("Durée d'obtention d'une prédiction de prix, par source")
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(meterRegistry));
+        Counter.builder("pricing.ml.predictions")
+                .description("Prix optimaux calculés, par source (service ML ou prix de secours)")
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
     }
 
-    private static class MLPredictionResponse {
-        private double prixPredit;
-        private CaracteristiquesUtilisees caracteristiquesUtilisees;
-        private String statut;
-
-        public double getPrixPredit() {
-            return prixPredit;
-        }
-
-        public void setPrixPredit(double prixPredit) {
-            this.prixPredit = prixPredit;
-        }
 
-        public CaracteristiquesUtilisees getCaracteristiquesUtilisees() {
-            return caracteristiquesUtilisees;
+    /**
+     * Page d'historique de l'utilisateur : calculs les plus récents d'abord, ou dernier calcul
+     * de chaque produit (filter.latest) ; filtres optionnels par produit et par période
+     */
+    public Mono<HistoryPage<OptimalPriceResult>> getPricingHistory(HistoryFilter filter) {
+        int limit = filter.getLimit();
+        if (limit < 1 || limit > historyMaxPageSize) {
+            return Mono.error(new IllegalArgumentException("limit doit être compris entre 1 et " + historyMaxPageSize));
         }
-
-        public void setCaracteristiquesUtilisees(CaracteristiquesUtilisees caracteristiquesUtilisees) {
-            this.caracteristiquesUtilisees = caracteristiquesUtilisees;
-        }
-
-        public String getStatut() {
-            return statut;
-        }
-
-        public void setStatut(String statut) {
-            this.statut = statut;
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(filter.getCursor());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
         }
+        return authService.getUserFromContext()
+                .flatMap(user -> (filter.isLatest()
+                        ? optimalPriceResultRepository.findLatestPerProduct(user.getId(), filter.getProductId(),
+                                filter.getFrom(), filter.getTo(), after != null ? after.id() : null, limit + 1)
+                        : optimalPriceResultRepository.findHistory(user.getId(), filter.getProductId(),
+                                filter.getFrom(), filter.getTo(), after != null ? after.position() : null,
+                                after != null ? after.id() : null, limit + 1))
+                        .collectList())
+                .map(rows -> HistoryPage.of(rows, limit, result -> filter.isLatest()
+                        ? new KeysetCursor(null, result.getProductId()).encode()
+                        : new KeysetCursor(result.getCalculatedAt(), result.getId()).encode()));
     }
 
-    private static class CaracteristiquesUtilisees {
-        private Object domaine;
-        private int domaineEncode;
-        private double prixConcurrent;
-        private double coutProduction;
-        private double margeVoulue;
-
-        public Object getDomaine() {
-            return domaine;
-        }
-
-        public void setDomaine(Object domaine) {
-            this.domaine = domaine;
-        }
-
-        public int getDomaineEncode() {
-            return domaineEncode;
-        }
-
-        public void setDomaineEncode(int domaineEncode) {
-            this.domaineEncode = domaineEncode;
-        }
-
-        public double getPrixConcurrent() {
-            return prixConcurrent;
-        }
-
-        public void setPrixConcurrent(double prixConcurrent) {
-            this.prixConcurrent = prixConcurrent;
-        }
-
-        public double getCoutProduction() {
-            return coutProduction;
-        }
-
-        public void setCoutProduction(double coutProduction) {
-            this.coutProduction = coutProduction;
-        }
-
-        public double getMargeVoulue() {
-            return margeVoulue;
-        }
-
-        public void setMargeVoulue(double margeVoulue) {
-            this.margeVoulue = margeVoulue;
-        }
+    /**
+     * Export de tout l'historique de l'utilisateur (filtres optionnels par produit et par période),
+     * calculs les plus récents d'abord, émis au fil de la lecture en base
+     */
+    public Flux<OptimalPriceResult> exportPricingHistory(UUID productId, LocalDateTime from, LocalDateTime to) {
+        return authService.getUserFromContext()
+                .flatMapMany(user -> optimalPriceResultRepository.streamHistory(user.getId(), productId, from, to, exportFetchSize));
     }
-}
\ No newline at end of file
+}
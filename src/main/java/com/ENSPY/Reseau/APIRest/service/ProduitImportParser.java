@@ -0,0 +1,173 @@
+package com.ENSPY.Reseau.APIRest.service;
+
+import com.ENSPY.Reseau.APIRest.model.Produit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lecture ligne à ligne d'un import de produits, en NDJSON (un objet Produit par ligne) ou en CSV
+ * (première ligne : en-tête avec les noms des champs JSON ou des colonnes). Les champs CSV peuvent être
+ * entre guillemets ("" pour un guillemet) et contenir alors des retours à la ligne, comme dans les exports :
+ * l'enregistrement est complété par les lignes suivantes. Une apostrophe devant une formule (=, +, -, @),
+ * ajoutée par l'export, est retirée.
+ * Une instance par import : l'en-tête CSV et l'enregistrement en cours sont mémorisés.
+ */
+final class ProduitImportParser {
+
+    // Champs importables (nom de colonne ou champ JSON -> champ JSON) ; id, userId et dates techniques sont attribués par le serveur
+    private static final Map<String, String> IMPORT_FIELDS = Map.ofEntries(
+            Map.entry("name", "name"),
+            Map.entry("description", "description"),
+            Map.entry("datelancement", "dateLancement"),
+            Map.entry("date_lancement", "dateLancement"),
+            Map.entry("prixdesconcurrents", "prixDesConcurrents"),
+            Map.entry("prix_des_concurrents", "prixDesConcurrents"),
+            Map.entry("coutdeproduction", "coutDeProduction"),
+            Map.entry("cout_de_production", "coutDeProduction"),
+            Map.entry("desiredmargin", "desiredMargin"),
+            Map.entry("desired_margin", "desiredMargin"),
+            Map.entry("category", "category"),
+            Map.entry("type", "type"),
+            Map.entry("stock", "stock"));
+
+    // Colonnes d'un export de produits, ignorées à l'import
+    private static final Set<String> IGNORED_FIELDS = Set.of(
+            "id", "userid", "user_id", "createdat", "created_at", "updatedat", "updated_at");
+
+    // Enregistrement CSV sur plusieurs lignes au-delà duquel le guillemet est considéré comme non fermé
+    private static final int MAX_RECORD_LENGTH = 256 * 1024;
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final ObjectMapper objectMapper;
+    private final boolean csv;
+    private String[] header;
+    // Début d'un enregistrement CSV dont un champ entre guillemets se poursuit à la ligne suivante
+    private final StringBuilder pending = new StringBuilder();
+    private long lineNumber;
+    private long pendingLine;
+
+    ProduitImportParser(ObjectMapper objectMapper, boolean csv) {
+        this.objectMapper = objectMapper;
+        this.csv = csv;
+    }
+
+    /**
+     * Produit décrit par la ligne, ou null pour une ligne vide, l'en-tête CSV ou un enregistrement CSV à compléter.
+     * Une ligne invalide lève IllegalArgumentException ; un en-tête invalide lève IllegalStateException.
+     */
+    Produit parse(String line) {
+        lineNumber++;
+        // Marque d'ordre des octets éventuelle en début de fichier
+        String content = line.startsWith("\uFEFF") ? line.substring(1) : line;
+        if (!pending.isEmpty()) {
+            content = pending.append('\n').append(content).toString();
+            pending.setLength(0);
+        } else if (content.isBlank()) {
+            return null;
+        }
+        return csv ? parseCsv(content) : parseJson(content);
+    }
+
+    /**
+     * Ligne de début de l'enregistrement CSV resté incomplet en fin d'import (guillemet non fermé), 0 sinon
+     */
+    long unterminatedRecordLine() {
+        return pending.isEmpty() ? 0 : pendingLine;
+    }
+
+    private Produit parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, Produit.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON invalide: " + e.getOriginalMessage());
+        }
+    }
+
+    private Produit parseCsv(String record) {
+        List<String> values = split(record);
+        if (values == null) {
+            if (record.length() > MAX_RECORD_LENGTH) {
+                throw new IllegalArgumentException("Guillemet non fermé");
+            }
+            if (record.indexOf('\n') < 0) {
+                pendingLine = lineNumber;
+            }
+            pending.append(record);
+            return null;
+        }
+        if (header == null) {
+            header = new String[values.size()];
+            for (int i = 0; i < values.size(); i++) {
+                String name = values.get(i).trim().toLowerCase(Locale.ROOT);
+                String field = IMPORT_FIELDS.get(name);
+                if (field == null && !IGNORED_FIELDS.contains(name)) {
+                    throw new IllegalStateException("Colonne inconnue dans l'en-tête CSV: " + values.get(i)
+                            + ". Colonnes disponibles: " + IMPORT_FIELDS.keySet());
+                }
+                header[i] = field;
+            }
+            return null;
+        }
+        if (values.size() != header.length) {
+            throw new IllegalArgumentException(values.size() + " valeurs pour " + header.length + " colonnes");
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < header.length; i++) {
+            if (header[i] != null && !values.get(i).isEmpty()) {
+                node.put(header[i], withoutFormulaPrefix(values.get(i)));
+            }
+        }
+        try {
+            // Conversion des valeurs texte par Jackson (nombres, dates ISO-8601)
+            return objectMapper.treeToValue(node, Produit.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Valeur invalide: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String withoutFormulaPrefix(String value) {
+        return value.length() > 1 && value.charAt(0) == '\'' && FORMULA_PREFIXES.indexOf(value.charAt(1)) >= 0
+                ? value.substring(1)
+                : value;
+    }
+
+    // Valeurs de l'enregistrement, ou null si un champ entre guillemets n'est pas encore fermé
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else if (c != '\r') {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+}
@@ -1,48 +1,205 @@
 package com.ENSPY.Reseau.APIRest.service;
 
+import com.ENSPY.Reseau.APIRest.dto.ProduitImportReport;
+import com.ENSPY.Reseau.APIRest.dto.ProduitPage;
 import com.ENSPY.Reseau.APIRest.model.Produit;
 import com.ENSPY.Reseau.APIRest.repository.ProduitRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ProduitService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProduitService.class);
+
+    // Champs JSON de Produit sélectionnables via fields -> colonnes de la table produits
+    private static final Map<String, String> FIELD_COLUMNS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("name", "name"),
+            Map.entry("description", "description"),
+            Map.entry("dateLancement", "date_lancement"),
+            Map.entry("prixDesConcurrents", "prix_des_concurrents"),
+            Map.entry("coutDeProduction", "cout_de_production"),
+            Map.entry("desiredMargin", "desired_margin"),
+            Map.entry("category", "category"),
+            Map.entry("type", "type"),
+            Map.entry("stock", "stock"),
+            Map.entry("userId", "user_id"),
+            Map.entry("createdAt", "created_at"),
+            Map.entry("updatedAt", "updated_at"));
+
     private final ProduitRepository produitRepository;
     private final AuthService authService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${produit.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${produit.import.chunk-size:500}")
+    private int importChunkSize;
 
-    public ProduitService(ProduitRepository produitRepository, AuthService authService) {
+    @Value("${produit.import.max-errors:1000}")
+    private int importMaxErrors;
+
+    @Value("${export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    public ProduitService(ProduitRepository produitRepository, AuthService authService, ObjectMapper objectMapper) {
         this.produitRepository = produitRepository;
         this.authService = authService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Page de produits de l'utilisateur (les plus récemment modifiés d'abord), à partir du curseur
+     * de la page précédente. fields (optionnel) restreint les colonnes lues ; id et updatedAt sont toujours lus.
+     */
+    public Mono<ProduitPage> getProducts(int limit, String cursor, String category, String type, Set<String> fields) {
+        if (limit < 1 || limit > maxPageSize) {
+            return Mono.error(new IllegalArgumentException("limit doit être compris entre 1 et " + maxPageSize));
+        }
+        List<String> columns = null;
+        if (fields != null && !fields.isEmpty()) {
+            columns = new ArrayList<>(List.of("id", "updated_at"));
+            for (String field : fields) {
+                String column = FIELD_COLUMNS.get(field);
+                if (column == null) {
+                    return Mono.error(new IllegalArgumentException("Champ inconnu: " + field
+                            + ". Champs disponibles: " + FIELD_COLUMNS.keySet()));
+                }
+                if (!columns.contains(column)) {
+                    columns.add(column);
+                }
+            }
+        }
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        List<String> selectedColumns = columns;
+        return authService.getUserFromContext()
+                .flatMap(user -> produitRepository.findPage(user.getId(), category, type,
+                                after != null ? after.position() : null, after != null ? after.id() : null,
+                                limit + 1, selectedColumns)
+                        .collectList())
+                .map(rows -> {
+                    // Une ligne de plus que demandé indique l'existence d'une page suivante
+                    if (rows.size() <= limit) {
+                        return new ProduitPage(rows, null);
+                    }
+                    List<Produit> page = rows.subList(0, limit);
+                    Produit last = page.get(limit - 1);
+                    return new ProduitPage(page, new KeysetCursor(last.getUpdatedAt(), last.getId()).encode());
+                });
     }
 
-    public Flux<Produit> getAllProducts() {
+    /**
+     * Import en masse des produits de l'utilisateur à partir des lignes du corps de la requête (NDJSON ou CSV).
+     * Les lignes sont validées au fil de la lecture et les produits valides insérés par lots d'une seule requête ;
+     * une ligne invalide (ou un lot refusé par la base) est rejetée sans interrompre l'import.
+     */
+    public Mono<ProduitImportReport> importProducts(Flux<String> lines, boolean csv) {
         return authService.getUserFromContext()
-                .flatMapMany(user -> produitRepository.findByUserIdOrderByUpdatedAtDesc(user.getId()));
+                .flatMap(user -> {
+                    ProduitImportParser parser = new ProduitImportParser(objectMapper, csv);
+                    ImportProgress progress = new ImportProgress(importMaxErrors);
+                    return lines.index()
+                            .<ImportRow>handle((line, sink) -> {
+                                long lineNumber = line.getT1() + 1;
+                                try {
+                                    Produit produit = parser.parse(line.getT2());
+                                    if (produit == null) {
+                                        return;
+                                    }
+                                    String error = validateImport(produit);
+                                    if (error != null) {
+                                        progress.reject(lineNumber, error);
+                                        return;
+                                    }
+                                    produit.setId(null);
+                                    produit.setUserId(user.getId());
+                                    produit.setCreatedAt(null);
+                                    produit.setUpdatedAt(null);
+                                    sink.next(new ImportRow(lineNumber, produit));
+                                } catch (IllegalArgumentException e) {
+                                    progress.reject(lineNumber, e.getMessage());
+                                } catch (IllegalStateException e) {
+                                    // En-tête CSV invalide : aucune ligne ne peut être interprétée
+                                    sink.error(new IllegalArgumentException(e.getMessage()));
+                                }
+                            })
+                            .concatWith(Mono.fromRunnable(() -> {
+                                long line = parser.unterminatedRecordLine();
+                                if (line > 0) {
+                                    progress.reject(line, "Guillemet non fermé");
+                                }
+                            }))
+                            .buffer(importChunkSize)
+                            .concatMap(rows -> produitRepository.insertAll(rows.stream().map(ImportRow::produit).toList())
+                                    .count()
+                                    .doOnNext(progress::imported)
+                                    .onErrorResume(e -> {
+                                        rows.forEach(row -> progress.reject(row.line(), "Échec de l'insertion du lot: " + e.getMessage()));
+                                        return Mono.empty();
+                                    }))
+                            .then(Mono.fromSupplier(progress::toReport));
+                });
     }
 
-    public Mono<Produit> getProductById(UUID id) {
-        System.out.println("=== DEBUG GET PRODUCT BY ID ===");
-        System.out.println("ID reçu: " + id);
-        System.out.println("Type de l'ID: " + id.getClass().getSimpleName());
+    // Message d'erreur, ou null si le produit peut être importé (contraintes de la table produits)
+    private static String validateImport(Produit produit) {
+        if (produit.getName() == null || produit.getName().isBlank()) {
+            return "name est obligatoire";
+        }
+        if (produit.getName().length() > 255
+                || (produit.getCategory() != null && produit.getCategory().length() > 255)
+                || (produit.getType() != null && produit.getType().length() > 255)) {
+            return "name, category et type sont limités à 255 caractères";
+        }
+        for (Double amount : new Double[]{produit.getPrixDesConcurrents(), produit.getCoutDeProduction(), produit.getDesiredMargin()}) {
+            // DECIMAL(10, 2)
+            if (amount != null && (amount.isNaN() || amount < 0 || amount >= 1e8)) {
+                return "prixDesConcurrents, coutDeProduction et desiredMargin doivent être compris entre 0 et 99999999.99";
+            }
+        }
+        if (produit.getStock() != null && produit.getStock() < 0) {
+            return "stock ne peut pas être négatif";
+        }
+        return null;
+    }
 
+    /**
+     * Export de tous les produits de l'utilisateur (category et type optionnels), émis au fil de la lecture en base
+     */
+    public Flux<Produit> exportProducts(String category, String type) {
+        return authService.getUserFromContext()
+                .flatMapMany(user -> produitRepository.streamByUser(user.getId(), category, type, exportFetchSize));
+    }
+
+    public Mono<Produit> getProductById(UUID id) {
         return authService.getUserFromContext()
                 .flatMap(currentUser -> produitRepository.findById(id)
                         .filter(produit -> produit.getUserId().equals(currentUser.getId()))
                         .switchIfEmpty(Mono.error(new RuntimeException("Produit non trouvé ou accès non autorisé")))
-                        .doOnNext(produit -> {
-                            System.out.println("Produit trouvé: " + produit.getName());
-                            System.out.println("ID du produit trouvé: " + produit.getId());
-                        })
-                        .doOnError(error -> {
-                            System.err.println("Erreur lors de la recherche: " + error.getMessage());
-                            error.printStackTrace();
-                        }));
+                        .doOnNext(produit -> log.debug("Produit trouvé: id={}, name={}", produit.getId(), produit.getName()))
+                        .doOnError(error -> log.debug("Produit {} introuvable: {}", id, error.getMessage())));
     }
 
     public Mono<Produit> createProduct(Produit produit) {
@@ -61,13 +218,8 @@ public class ProduitService {
                 })
                 .switchIfEmpty(Mono.error(new RuntimeException("Contexte de sécurité non disponible")))
                 .flatMap(produitRepository::save)
-                .doOnNext(savedProduit -> {
-                    System.out.println("=== PRODUIT SAUVEGARDÉ ===");
-                    System.out.println("ID: " + savedProduit.getId());
-                    System.out.println("UserId: " + savedProduit.getUserId());
-                    System.out.println("Marge désirée sauvegardée: " + savedProduit.getDesiredMargin());
-                    System.out.println("==========================");
-                });
+                .doOnNext(savedProduit -> log.debug("Produit créé: id={}, userId={}, desiredMargin={}",
+                        savedProduit.getId(), savedProduit.getUserId(), savedProduit.getDesiredMargin()));
     }
 
     public Mono<Produit> updateProduct(UUID id, Produit produitDetails) {
@@ -99,11 +251,8 @@ public class ProduitService {
                     }
                     produit.setUpdatedAt(LocalDateTime.now());
                     return produitRepository.save(produit)
-                            .doOnNext(updatedProduit -> {
-                                System.out.println("=== PRODUIT MIS À JOUR ===");
-                                System.out.println("Marge désirée finale: " + updatedProduit.getDesiredMargin());
-                                System.out.println("===========================");
-                            });
+                            .doOnNext(updatedProduit -> log.debug("Produit mis à jour: id={}, desiredMargin={}",
+                                    updatedProduit.getId(), updatedProduit.getDesiredMargin()));
                 });
     }
 
@@ -111,4 +260,40 @@ public class ProduitService {
         return getProductById(id)
                 .flatMap(produitRepository::delete);
     }
+
+    private record ImportRow(long line, Produit produit) {
+    }
+
+    // Compteurs d'un import ; alimentés à la fois par la lecture des lignes et par les insertions
+    private static final class ImportProgress {
+        private final int maxErrors;
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<ProduitImportReport.RowError> errors = new ArrayList<>();
+
+        private ImportProgress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void imported(long count) {
+            imported.addAndGet(count);
+        }
+
+        void reject(long line, String message) {
+            rejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ProduitImportReport.RowError(line, message));
+                }
+            }
+        }
+
+        ProduitImportReport toReport() {
+            synchronized (errors) {
+                List<ProduitImportReport.RowError> sorted = new ArrayList<>(errors);
+                sorted.sort(Comparator.comparingLong(ProduitImportReport.RowError::getLine));
+                return new ProduitImportReport(imported.get(), rejected.get(), sorted, rejected.get() > errors.size());
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -1,128 +1,71 @@
 package com.ENSPY.Reseau.APIRest.service;
 
+import com.ENSPY.Reseau.APIRest.config.ServerTiming;
+import com.ENSPY.Reseau.APIRest.dto.HistoryFilter;
+import com.ENSPY.Reseau.APIRest.dto.HistoryPage;
+import com.ENSPY.Reseau.APIRest.dto.TarificationTrajectory;
 import com.ENSPY.Reseau.APIRest.model.Produit;
 import com.ENSPY.Reseau.APIRest.model.TarificationResult;
-import com.ENSPY.Reseau.APIRest.model.User;
+import com.ENSPY.Reseau.APIRest.repository.ProduitRepository;
 import com.ENSPY.Reseau.APIRest.repository.TarificationRepository;
+import com.ENSPY.Reseau.APIRest.tarification.ProductColumns;
+import com.ENSPY.Reseau.APIRest.tarification.TarificationStrategy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 public class TarificationService {
 
     private final TarificationRepository tarificationRepository;
+    private final ProduitRepository produitRepository;
     private final ProduitService produitService;
     private final AuthService authService;
 
+    @Value("${tarification.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${tarification.trajectory.max-months:120}")
+    private int trajectoryMaxMonths;
+
+    @Value("${history.page.max-size:500}")
+    private int historyMaxPageSize;
+
+    @Value("${export.fetch-size:1000}")
+    private int exportFetchSize;
+
     public TarificationService(
             TarificationRepository tarificationRepository,
+            ProduitRepository produitRepository,
             ProduitService produitService,
             AuthService authService) {
         this.tarificationRepository = tarificationRepository;
+        this.produitRepository = produitRepository;
         this.produitService = produitService;
         this.authService = authService;
     }
 
-    /**
-     * Calcule le temps écoulé depuis la date de lancement du produit en mois
-     */
-    private double calculateTimeInMonths(LocalDateTime launchDate) {
-        if (launchDate == null) {
-            return 0.0; // Si pas de date de lancement, considérer t=0
-        }
-        LocalDateTime now = LocalDateTime.now();
-        return ChronoUnit.DAYS.between(launchDate, now) / 30.0; // Approximation : 30 jours = 1 mois
-    }
-
     /**
      * Tarification par écrémage : P_écrémage(t) = P_max * e^(-α * t)
      * avec contrainte : P_écrémage(t) >= C * 1.2 (marge minimale de 20%)
      */
     public Mono<TarificationResult> calculateDecremageTarificationPrice(UUID productId, Double prixMax) {
-        return produitService.getProductById(productId)
-                .zipWith(authService.getUserFromContext())
-                .flatMap(tuple -> {
-                    Produit produit = tuple.getT1();
-                    User currentUser = tuple.getT2();
-
-                    // Calcul du temps écoulé depuis le lancement
-                    double t = calculateTimeInMonths(produit.getDateLancement());
-
-                    // Paramètres du modèle d'écrémage
-                    double alpha = 0.03; // Taux de décroissance par mois
-                    double prixMaximal = prixMax != null ? prixMax : produit.getPrixDesConcurrents() * 1.5;
-
-                    // Formule d'écrémage
-                    double tarificationPrice = prixMaximal * Math.exp(-alpha * t);
-
-                    // Contrainte : prix minimum = coût de production + 20% de marge
-                    double prixMinimal = produit.getCoutDeProduction() * 1.2;
-                    if (tarificationPrice < prixMinimal) {
-                        tarificationPrice = prixMinimal;
-                    }
-
-                    double potentialRevenue = tarificationPrice * produit.getStock();
-                    double margin = (tarificationPrice - produit.getCoutDeProduction()) / tarificationPrice * 100;
-
-                    TarificationResult result = new TarificationResult();
-                    result.setProductId(produit.getId());
-                    result.setProductName(produit.getName());
-                    result.setPrixDesConcurrents(produit.getPrixDesConcurrents());
-                    result.setTarificationPrice(tarificationPrice);
-                    result.setPotentialRevenue(potentialRevenue);
-                    result.setMargin(margin);
-                    result.setUserId(currentUser.getId());
-                    result.setTimeInMonths(t);
-
-                    return tarificationRepository.save(result);
-                });
+        return calculateTarificationPrice(productId, TarificationStrategy.ECREMAGE, 0, prixMax);
     }
 
     /**
      * Tarification par pénétration : P_pénétration(t) = P_min + β * ln(t+1)
      */
     public Mono<TarificationResult> calculatePenetrationTarificationPrice(UUID productId, Double prixMin) {
-        return produitService.getProductById(productId)
-                .zipWith(authService.getUserFromContext())
-                .flatMap(tuple -> {
-                    Produit produit = tuple.getT1();
-                    User currentUser = tuple.getT2();
-
-                    // Calcul du temps écoulé depuis le lancement
-                    double t = calculateTimeInMonths(produit.getDateLancement());
-
-                    // Paramètres du modèle de pénétration
-                    double prixMinimal = prixMin != null ? prixMin : produit.getCoutDeProduction() * 1.1;
-                    double beta = 0.055 * produit.getCoutDeProduction(); // Taux d'augmentation
-
-                    // Formule de pénétration
-                    double tarificationPrice = prixMinimal + beta * Math.log(t + 1);
-
-                    // Contrainte : ne pas descendre en dessous du prix minimal
-                    if (tarificationPrice < prixMinimal) {
-                        tarificationPrice = prixMinimal;
-                    }
-
-                    double potentialRevenue = tarificationPrice * produit.getStock();
-                    double margin = (tarificationPrice - produit.getCoutDeProduction()) / tarificationPrice * 100;
-
-                    TarificationResult result = new TarificationResult();
-                    result.setProductId(produit.getId());
-                    result.setProductName(produit.getName());
-                    result.setPrixDesConcurrents(produit.getPrixDesConcurrents());
-                    result.setTarificationPrice(tarificationPrice);
-                    result.setPotentialRevenue(potentialRevenue);
-                    result.setMargin(margin);
-                    result.setUserId(currentUser.getId());
-                    result.setTimeInMonths(t);
-
-                    return tarificationRepository.save(result);
-                });
+        return calculateTarificationPrice(productId, TarificationStrategy.PENETRATION, 0, prixMin);
     }
 
     /**
@@ -130,103 +73,173 @@ public class TarificationService {
      * δ peut varier légèrement dans le temps pour s'adapter au marché
      */
     public Mono<TarificationResult> calculateAlignementTarificationPrice(UUID productId) {
-        return produitService.getProductById(productId)
-                .zipWith(authService.getUserFromContext())
-                .flatMap(tuple -> {
-                    Produit produit = tuple.getT1();
-                    User currentUser = tuple.getT2();
+        return calculateTarificationPrice(productId, TarificationStrategy.ALIGNEMENT, 0, null);
+    }
 
-                    // Calcul du temps écoulé depuis le lancement
-                    double t = calculateTimeInMonths(produit.getDateLancement());
+    /**
+     * Méthode pour calculer le prix à un moment donné dans le futur
+     */
+    public Mono<TarificationResult> calculateFuturePricing(UUID productId, String strategie,
+                                                           int monthsInFuture, Double prixReference) {
+        return calculateTarificationPrice(productId, TarificationStrategy.fromName(strategie), monthsInFuture, prixReference);
+    }
 
-                    // Prix des concurrents
-                    Double prixConcurrents = produit.getPrixDesConcurrents();
+    /**
+     * Applique une stratégie à une liste de produits (ou à tout le catalogue si la liste est vide),
+     * par lots évalués en une passe et sauvegardés en une seule requête
+     */
+    public Flux<TarificationResult> calculateTarificationPrices(TarificationStrategy strategy, List<UUID> productIds,
+                                                                int monthsInFuture, Double prixReference) {
+        return authService.getUserFromContext()
+                .flatMapMany(currentUser -> findSelection(currentUser.getId(), productIds)
+                        .filter(produit -> produit.getPrixDesConcurrents() != null && produit.getCoutDeProduction() != null)
+                        .buffer(batchChunkSize)
+                        .concatMap(produits -> tarificationRepository.insertAll(
+                                toResults(produits, strategy, monthsInFuture, prixReference, currentUser.getId()))));
+    }
 
-                    // Ajustement dynamique basé sur le temps (optionnel)
-                    // δ peut diminuer avec le temps pour se rapprocher des concurrents
-                    double delta = 0.015 * prixConcurrents * Math.exp(-0.01 * t);
-                    double tarificationPrice = prixConcurrents + delta;
+    /**
+     * Prix futurs d'une liste de produits (ou de tout le catalogue), émis au fil du calcul et sans sauvegarde ;
+     * les produits sont lus au rythme de la consommation du client (backpressure)
+     */
+    public Flux<TarificationResult> streamFuturePricing(TarificationStrategy strategy, List<UUID> productIds,
+                                                        int monthsInFuture, Double prixReference) {
+        return authService.getUserFromContext()
+                .flatMapMany(currentUser -> findSelection(currentUser.getId(), productIds)
+                        .filter(produit -> produit.getPrixDesConcurrents() != null && produit.getCoutDeProduction() != null)
+                        .map(produit -> toResults(List.of(produit), strategy, monthsInFuture, prixReference,
+                                currentUser.getId()).get(0)));
+    }
 
-                    // Contrainte : prix minimum = coût de production + 10% de marge
-                    double prixMinimal = produit.getCoutDeProduction() * 1.1;
-                    if (tarificationPrice < prixMinimal) {
-                        tarificationPrice = prixMinimal;
+    /**
+     * Trajectoire prix / revenu potentiel / marge pour les mois 0..months, calculée en une passe par stratégie
+     * sans sauvegarde des points. references associe à chaque stratégie son prix de référence (optionnel).
+     */
+    public Mono<TarificationTrajectory> calculateTrajectory(UUID productId, List<TarificationStrategy> strategies,
+                                                            int months, Map<TarificationStrategy, Double> references) {
+        if (months < 0 || months > trajectoryMaxMonths) {
+            return Mono.error(new RuntimeException("Le nombre de mois doit être compris entre 0 et " + trajectoryMaxMonths));
+        }
+        return ServerTiming.stage("product", produitService.getProductById(productId))
+                .flatMap(produit -> {
+                    if (produit.getPrixDesConcurrents() == null || produit.getCoutDeProduction() == null) {
+                        return Mono.error(new RuntimeException("Le prix des concurrents et le coût de production sont requis"));
                     }
-
-                    double potentialRevenue = tarificationPrice * produit.getStock();
-                    double margin = (tarificationPrice - produit.getCoutDeProduction()) / tarificationPrice * 100;
-
-                    TarificationResult result = new TarificationResult();
-                    result.setProductId(produit.getId());
-                    result.setProductName(produit.getName());
-                    result.setPrixDesConcurrents(produit.getPrixDesConcurrents());
-                    result.setTarificationPrice(tarificationPrice);
-                    result.setPotentialRevenue(potentialRevenue);
-                    result.setMargin(margin);
-                    result.setUserId(currentUser.getId());
-                    result.setTimeInMonths(t);
-
-                    return tarificationRepository.save(result);
+                    double t0 = TarificationStrategy.monthsSince(produit.getDateLancement(), LocalDateTime.now());
+                    double prixConcurrents = produit.getPrixDesConcurrents();
+                    double coutDeProduction = produit.getCoutDeProduction();
+                    double stock = produit.getStock() != null ? produit.getStock() : 0.0;
+
+                    TarificationTrajectory trajectory = new TarificationTrajectory();
+                    trajectory.setProductId(produit.getId());
+                    trajectory.setProductName(produit.getName());
+                    trajectory.setStartMonth(t0);
+                    trajectory.setMonths(months);
+                    for (TarificationStrategy strategy : strategies) {
+                        Double reference = references.get(strategy);
+                        double[] prices = new double[months + 1];
+                        strategy.trajectory(t0, prixConcurrents, coutDeProduction,
+                                reference != null ? reference : Double.NaN, prices);
+                        double[] revenues = new double[prices.length];
+                        double[] margins = new double[prices.length];
+                        for (int m = 0; m < prices.length; m++) {
+                            revenues[m] = prices[m] * stock;
+                            margins[m] = TarificationStrategy.margin(prices[m], coutDeProduction);
+                        }
+                        TarificationTrajectory.Curve curve = new TarificationTrajectory.Curve();
+                        curve.setPrices(prices);
+                        curve.setRevenues(revenues);
+                        curve.setMargins(margins);
+                        trajectory.getStrategies().put(strategy.name(), curve);
+                    }
+                    return Mono.just(trajectory);
                 });
     }
 
     /**
-     * Méthode pour calculer le prix à un moment donné dans le futur
+     * Produits de l'utilisateur parmi productIds, lus par clé primaire ; tout le catalogue si la liste est vide
      */
-    public Mono<TarificationResult> calculateFuturePricing(UUID productId, String strategie,
-                                                           int monthsInFuture, Double prixReference) {
-        return produitService.getProductById(productId)
-                .zipWith(authService.getUserFromContext())
+    private Flux<Produit> findSelection(UUID userId, List<UUID> productIds) {
+        UUID[] ids = productIds == null ? new UUID[0]
+                : productIds.stream().filter(Objects::nonNull).distinct().toArray(UUID[]::new);
+        return ids.length == 0
+                ? produitRepository.findByUserIdOrderByUpdatedAtDesc(userId)
+                : produitRepository.findByUserIdAndIdIn(userId, ids);
+    }
+
+    private Mono<TarificationResult> calculateTarificationPrice(UUID productId, TarificationStrategy strategy,
+                                                                int monthsInFuture, Double prixReference) {
+        return ServerTiming.stage("product", produitService.getProductById(productId))
+                .zipWith(ServerTiming.stage("auth", authService.getUserFromContext()))
                 .flatMap(tuple -> {
                     Produit produit = tuple.getT1();
-                    User currentUser = tuple.getT2();
-
-                    // Temps futur
-                    double t = calculateTimeInMonths(produit.getDateLancement()) + monthsInFuture;
-
-                    double tarificationPrice;
-
-                    switch (strategie.toUpperCase()) {
-                        case "ECREMAGE":
-                            double prixMax = prixReference != null ? prixReference : produit.getPrixDesConcurrents() * 1.5;
-                            tarificationPrice = prixMax * Math.exp(-0.03 * t);
-                            tarificationPrice = Math.max(tarificationPrice, produit.getCoutDeProduction() * 1.2);
-                            break;
-
-                        case "PENETRATION":
-                            double prixMin = prixReference != null ? prixReference : produit.getCoutDeProduction() * 1.1;
-                            double beta = 0.055 * produit.getCoutDeProduction();
-                            tarificationPrice = prixMin + beta * Math.log(t + 1);
-                            tarificationPrice = Math.max(tarificationPrice, prixMin);
-                            break;
-
-                        case "ALIGNEMENT":
-                        default:
-                            double delta = 0.015 * produit.getPrixDesConcurrents() * Math.exp(-0.01 * t);
-                            tarificationPrice = produit.getPrixDesConcurrents() + delta;
-                            tarificationPrice = Math.max(tarificationPrice, produit.getCoutDeProduction() * 1.1);
-                            break;
+                    if (produit.getPrixDesConcurrents() == null || produit.getCoutDeProduction() == null) {
+                        return Mono.error(new RuntimeException("Le prix des concurrents et le coût de production sont requis"));
                     }
+                    List<TarificationResult> results = toResults(List.of(produit), strategy, monthsInFuture,
+                            prixReference, tuple.getT2().getId());
+                    return ServerTiming.stage("save", tarificationRepository.save(results.get(0)));
+                });
+    }
 
-                    double potentialRevenue = tarificationPrice * produit.getStock();
-                    double margin = (tarificationPrice - produit.getCoutDeProduction()) / tarificationPrice * 100;
-
-                    TarificationResult result = new TarificationResult();
-                    result.setProductId(produit.getId());
-                    result.setProductName(produit.getName());
-                    result.setPrixDesConcurrents(produit.getPrixDesConcurrents());
-                    result.setTarificationPrice(tarificationPrice);
-                    result.setPotentialRevenue(potentialRevenue);
-                    result.setMargin(margin);
-                    result.setUserId(currentUser.getId());
-                    result.setTimeInMonths(t);
+    private List<TarificationResult> toResults(List<Produit> produits, TarificationStrategy strategy,
+                                               int monthsInFuture, Double prixReference, UUID userId) {
+        ProductColumns columns = ProductColumns.of(produits, LocalDateTime.now(), monthsInFuture);
+        double[] prices = columns.prices(strategy, prixReference != null ? prixReference : Double.NaN);
+
+        List<TarificationResult> results = new ArrayList<>(produits.size());
+        for (int i = 0; i < columns.size(); i++) {
+            Produit produit = produits.get(i);
+            double tarificationPrice = prices[i];
+
+            TarificationResult result = new TarificationResult();
+            result.setProductId(produit.getId());
+            result.setProductName(produit.getName());
+            result.setPrixDesConcurrents(produit.getPrixDesConcurrents());
+            result.setTarificationPrice(tarificationPrice);
+            result.setPotentialRevenue(tarificationPrice * columns.stock(i));
+            result.setMargin(TarificationStrategy.margin(tarificationPrice, columns.coutDeProduction(i)));
+            result.setUserId(userId);
+            result.setTimeInMonths(columns.months(i));
+            results.add(result);
+        }
+        return results;
+    }
 
-                    return tarificationRepository.save(result);
-                });
+    /**
+     * Page d'historique de l'utilisateur : calculs les plus récents d'abord, ou dernier calcul
+     * de chaque produit (filter.latest) ; filtres optionnels par produit et par période
+     */
+    public Mono<HistoryPage<TarificationResult>> getPricingHistory(HistoryFilter filter) {
+        int limit = filter.getLimit();
+        if (limit < 1 || limit > historyMaxPageSize) {
+            return Mono.error(new IllegalArgumentException("limit doit être compris entre 1 et " + historyMaxPageSize));
+        }
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(filter.getCursor());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        return authService.getUserFromContext()
+                .flatMap(user -> (filter.isLatest()
+                        ? tarificationRepository.findLatestPerProduct(user.getId(), filter.getProductId(),
+                                filter.getFrom(), filter.getTo(), after != null ? after.id() : null, limit + 1)
+                        : tarificationRepository.findHistory(user.getId(), filter.getProductId(),
+                                filter.getFrom(), filter.getTo(), after != null ? after.position() : null,
+                                after != null ? after.id() : null, limit + 1))
+                        .collectList())
+                .map(rows -> HistoryPage.of(rows, limit, result -> filter.isLatest()
+                        ? new KeysetCursor(null, result.getProductId()).encode()
+                        : new KeysetCursor(result.getCalculatedAt(), result.getId()).encode()));
     }
 
-    public Flux<TarificationResult> getPricingHistory() {
+    /**
+     * Export de tout l'historique de l'utilisateur (filtres optionnels par produit et par période),
+     * calculs les plus récents d'abord, émis au fil de la lecture en base
+     */
+    public Flux<TarificationResult> exportPricingHistory(UUID productId, LocalDateTime from, LocalDateTime to) {
         return authService.getUserFromContext()
-                .flatMapMany(user -> tarificationRepository.findByUserIdOrderByCalculatedAtDesc(user.getId()));
+                .flatMapMany(user -> tarificationRepository.streamHistory(user.getId(), productId, from, to, exportFetchSize));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,232 @@
+package com.ENSPY.Reseau.APIRest.service;
+
+import com.ENSPY.Reseau.APIRest.model.RevokedToken;
+import com.ENSPY.Reseau.APIRest.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocation des JWT avant leur expiration (déconnexion, changement de mot de passe).
+ * Les révocations sont persistées dans revoked_tokens et répliquées en mémoire : un filtre de Bloom
+ * écarte sans autre coût la quasi-totalité des tokens valides, l'ensemble exact confirme les positifs.
+ * La copie mémoire est rafraîchie de façon incrémentale (lignes révoquées depuis le dernier passage),
+ * ce qui propage les révocations faites par les autres instances.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Duration refreshInterval;
+    private final Duration purgeInterval;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final long jwtExpiration;
+    private final Counter rejectedTokens;
+
+    // jti révoqué -> expiration du token (ms)
+    private final Map<String, Long> revokedJtis = new ConcurrentHashMap<>();
+    // userId -> tokens émis avant issuedBefore (exclu) révoqués
+    private final Map<String, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloomFilter;
+    private volatile LocalDateTime lastRefresh = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private Disposable backgroundRefresh;
+    private Disposable backgroundPurge;
+
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.revocation.refresh-interval:30s}") Duration refreshInterval,
+            @Value("${jwt.revocation.purge-interval:1h}") Duration purgeInterval,
+            @Value("${jwt.revocation.bloom.expected-insertions:100000}") int expectedInsertions,
+            @Value("${jwt.revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtExpiration = jwtExpiration;
+        this.refreshInterval = refreshInterval;
+        this.purgeInterval = purgeInterval;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        this.rejectedTokens = Counter.builder("jwt.revocation.rejected")
+                .description("Requêtes refusées car portant un token révoqué")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.entries", this, service -> service.revokedJtis.size() + service.revokedUsers.size())
+                .description("Révocations actives en mémoire")
+                .register(meterRegistry);
+    }
+
+    // Après le démarrage complet, une fois les migrations du schéma appliquées
+    @EventListener(ApplicationReadyEvent.class)
+    void startBackgroundTasks() {
+        backgroundRefresh = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh().onErrorResume(e -> {
+                    log.warn("Échec du rafraîchissement des tokens révoqués: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+        backgroundPurge = Flux.interval(purgeInterval, purgeInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> purgeExpired().onErrorResume(e -> {
+                    log.warn("Échec de la purge des tokens révoqués: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stopBackgroundTasks() {
+        if (backgroundRefresh != null) {
+            backgroundRefresh.dispose();
+        }
+        if (backgroundPurge != null) {
+            backgroundPurge.dispose();
+        }
+    }
+
+    /**
+     * Vrai si le token (claims déjà vérifiés) a été révoqué ; aucune requête en base
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && bloomFilter.mightContain(jti) && revokedJtis.containsKey(jti)) {
+            rejectedTokens.increment();
+            return true;
+        }
+        String userId = claims.get("userId", String.class);
+        UserRevocation revocation = userId != null ? revokedUsers.get(userId) : null;
+        Date issuedAt = claims.getIssuedAt();
+        if (revocation != null && issuedAt != null && issuedAt.getTime() < revocation.issuedBeforeMillis()) {
+            rejectedTokens.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Révoque le token (déconnexion). Un token sans jti ne peut être révoqué qu'avec
+     * tous les tokens de l'utilisateur émis jusqu'à la même seconde que lui (iat est à la seconde).
+     */
+    public Mono<Void> revoke(Claims claims) {
+        String userId = claims.get("userId", String.class);
+        if (userId == null) {
+            return Mono.error(new RuntimeException("Token sans identifiant utilisateur"));
+        }
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setUserId(UUID.fromString(userId));
+        if (claims.getId() != null) {
+            revokedToken.setJti(claims.getId());
+        } else {
+            revokedToken.setIssuedBefore(toLocalDateTime(claims.getIssuedAt().getTime() + 1000));
+        }
+        revokedToken.setExpiresAt(toLocalDateTime(claims.getExpiration().getTime()));
+        return save(revokedToken);
+    }
+
+    /**
+     * Révoque tous les tokens de l'utilisateur émis avant la seconde courante (changement de mot de passe).
+     * iat est à la seconde : la limite est tronquée pour que le token émis juste après reste valide.
+     */
+    public Mono<Void> revokeAllForUser(UUID userId) {
+        return revokeIssuedBefore(userId, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Révoque tous les tokens de l'utilisateur supprimé, y compris ceux émis dans la seconde courante
+     */
+    public Mono<Void> revokeAllForDeletedUser(UUID userId) {
+        return revokeIssuedBefore(userId, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1));
+    }
+
+    private Mono<Void> revokeIssuedBefore(UUID userId, LocalDateTime issuedBefore) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setUserId(userId);
+        revokedToken.setIssuedBefore(issuedBefore);
+        revokedToken.setExpiresAt(issuedBefore.plus(Duration.ofMillis(jwtExpiration)));
+        return save(revokedToken);
+    }
+
+    /**
+     * Charge les révocations enregistrées depuis le dernier passage. La fenêtre recouvre
+     * l'intervalle précédent pour tolérer les écarts d'horloge et les transactions tardives.
+     */
+    public Mono<Void> refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastRefresh.minus(refreshInterval);
+        return revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, now)
+                .doOnNext(this::apply)
+                .then(Mono.fromRunnable(() -> lastRefresh = now));
+    }
+
+    /**
+     * Retire les révocations expirées (en mémoire et en base) et reconstruit le filtre de Bloom
+     */
+    public Mono<Void> purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            revokedJtis.values().removeIf(expiresAt -> expiresAt <= now);
+            revokedUsers.values().removeIf(revocation -> revocation.expiresAtMillis() <= now);
+            BloomFilter rebuilt = BloomFilter.create(Math.max(expectedInsertions, revokedJtis.size() * 2), falsePositiveRate);
+            revokedJtis.keySet().forEach(rebuilt::put);
+            bloomFilter = rebuilt;
+        }
+        return revokedTokenRepository.deleteByExpiresAtBefore(toLocalDateTime(now));
+    }
+
+    private Mono<Void> save(RevokedToken revokedToken) {
+        revokedToken.setRevokedAt(LocalDateTime.now());
+        return revokedTokenRepository.save(revokedToken)
+                .doOnNext(this::apply)
+                .then();
+    }
+
+    private void apply(RevokedToken revokedToken) {
+        long expiresAt = toMillis(revokedToken.getExpiresAt());
+        synchronized (writeLock) {
+            if (revokedToken.getJti() != null) {
+                // L'ensemble exact est renseigné avant le filtre : un positif du filtre est toujours confirmable
+                revokedJtis.put(revokedToken.getJti(), expiresAt);
+                bloomFilter.put(revokedToken.getJti());
+            } else if (revokedToken.getIssuedBefore() != null) {
+                UserRevocation revocation = new UserRevocation(toMillis(revokedToken.getIssuedBefore()), expiresAt);
+                revokedUsers.merge(revokedToken.getUserId().toString(), revocation,
+                        (current, added) -> added.issuedBeforeMillis() > current.issuedBeforeMillis() ? added : current);
+            }
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(new Date(millis).toInstant(), ZoneId.systemDefault());
+    }
+
+    private record UserRevocation(long issuedBeforeMillis, long expiresAtMillis) {
+    }
+}
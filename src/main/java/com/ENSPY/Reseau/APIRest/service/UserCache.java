@@ -0,0 +1,45 @@
+package com.ENSPY.Reseau.APIRest.service;
+
+import com.ENSPY.Reseau.APIRest.model.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache court des utilisateurs authentifiés, indexé par email.
+ * Doit être invalidé à chaque modification ou suppression d'un utilisateur.
+ */
+@Component
+public class UserCache {
+
+    private final AsyncCache<String, User> cache;
+
+    public UserCache(
+            MeterRegistry meterRegistry,
+            @Value("${auth.user-cache.max-size:10000}") long maxSize,
+            @Value("${auth.user-cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.users");
+    }
+
+    public Mono<User> get(String email, Function<String, Mono<User>> loader) {
+        return Mono.fromFuture(() -> cache.get(email, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.synchronous().invalidate(email);
+        }
+    }
+}
@@ -7,9 +7,9 @@ import com.ENSPY.Reseau.APIRest.repository.TarificationRepository;
 import com.ENSPY.Reseau.APIRest.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.codec.multipart.FilePart;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -25,8 +25,9 @@ public class UserService {
     private final ProduitRepository produitRepository;
     private final TarificationRepository tarificationRepository;
     private final OptimalPriceResultRepository optimalPriceResultRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final AuthService authService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Value("${file.upload-dir}")
     private String uploadDir;
@@ -34,13 +35,15 @@ public class UserService {
     public UserService(UserRepository userRepository, ProduitRepository produitRepository,
                        TarificationRepository tarificationRepository,
                        OptimalPriceResultRepository optimalPriceResultRepository,
-                       PasswordEncoder passwordEncoder, AuthService authService) {
+                       PasswordHasher passwordHasher, AuthService authService,
+                       TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.produitRepository = produitRepository;
         this.tarificationRepository = tarificationRepository;
         this.optimalPriceResultRepository = optimalPriceResultRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.authService = authService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public Mono<User> getUserById(UUID id) {
@@ -54,8 +57,12 @@ public class UserService {
                     if (!currentUser.getId().equals(id)) {
                         return Mono.error(new RuntimeException("Vous n'êtes pas autorisé à modifier cet utilisateur"));
                     }
+                    boolean passwordChanged = userDetails.getPassword() != null && !userDetails.getPassword().isEmpty();
+                    Mono<String> encodedPassword = passwordChanged
+                            ? passwordHasher.encode(userDetails.getPassword())
+                            : Mono.just("");
                     return getUserById(id)
-                            .map(user -> {
+                            .zipWith(encodedPassword, (user, newPassword) -> {
                                 if (userDetails.getFirstName() != null) {
                                     user.setFirstName(userDetails.getFirstName());
                                 }
@@ -65,13 +72,18 @@ public class UserService {
                                 if (userDetails.getCompanyName() != null) {
                                     user.setCompanyName(userDetails.getCompanyName());
                                 }
-                                if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
-                                    user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+                                if (passwordChanged) {
+                                    user.setPassword(newPassword);
                                 }
                                 user.setUpdatedAt(LocalDateTime.now());
                                 return user;
                             })
-                            .flatMap(userRepository::save);
+                            .flatMap(userRepository::save)
+                            // Un changement de mot de passe invalide tous les tokens déjà émis
+                            .flatMap(savedUser -> passwordChanged
+                                    ? tokenRevocationService.revokeAllForUser(savedUser.getId()).thenReturn(savedUser)
+                                    : Mono.just(savedUser))
+                            .doOnNext(savedUser -> authService.evictUser(savedUser.getEmail()));
                 });
     }
 
@@ -94,14 +106,17 @@ public class UserService {
                             Path uploadPath = Paths.get(uploadDir);
                             Path targetLocation = uploadPath.resolve(fileName);
 
+                            // Accès disque bloquants : hors des boucles d'événements Netty
                             return Mono.fromCallable(() -> Files.createDirectories(uploadPath))
                                     .then(filePart.transferTo(targetLocation))
+                                    .subscribeOn(Schedulers.boundedElastic())
                                     .then(Mono.just(fileName))
                                     .flatMap(fileNameResult -> {
                                         String fileUrl = "/uploads/profile-pictures/" + fileNameResult;
                                         user.setProfilePicture(fileUrl);
                                         user.setUpdatedAt(LocalDateTime.now());
                                         return userRepository.save(user)
+                                                .doOnNext(savedUser -> authService.evictUser(savedUser.getEmail()))
                                                 .thenReturn(fileUrl);
                                     });
                         }));
@@ -121,8 +136,8 @@ public class UserService {
                                     Path filePath = Paths.get(uploadDir).resolve(fileName);
                                     Files.deleteIfExists(filePath);
                                     return null;
-                                })
-                                        : Mono.empty();
+                                }).subscribeOn(Schedulers.boundedElastic()).then()
+                                        : Mono.<Void>empty();
                                 // Supprimer d'abord les dépendances dans optimal_prices et tarification_prices
                                 Mono<Void> deleteOptimalPrices = optimalPriceResultRepository.deleteByUserId(id);
                                 Mono<Void> deleteTarificationPrices = tarificationRepository.deleteByUserId(id);
@@ -133,7 +148,10 @@ public class UserService {
                                         .then(deleteTarificationPrices)
                                         .then(deleteProduits)
                                         .then(deleteFile)
-                                        .then(userRepository.delete(user));
+                                        .then(userRepository.delete(user))
+                                        .doOnSuccess(deleted -> authService.evictUser(user.getEmail()))
+                                        // Les tokens encore valides de l'utilisateur supprimé sont refusés
+                                        .then(tokenRevocationService.revokeAllForDeletedUser(id));
                             });
                 });
     }
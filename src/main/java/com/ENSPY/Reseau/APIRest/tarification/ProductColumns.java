@@ -0,0 +1,66 @@
+package com.ENSPY.Reseau.APIRest.tarification;
+
+import com.ENSPY.Reseau.APIRest.model.Produit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Données d'un lot de produits rangées par colonnes (tableaux primitifs) pour l'évaluation en masse
+ */
+public final class ProductColumns {
+
+    private final int size;
+    private final double[] months;
+    private final double[] prixConcurrents;
+    private final double[] coutsDeProduction;
+    private final double[] stocks;
+
+    private ProductColumns(int size) {
+        this.size = size;
+        this.months = new double[size];
+        this.prixConcurrents = new double[size];
+        this.coutsDeProduction = new double[size];
+        this.stocks = new double[size];
+    }
+
+    /**
+     * Colonnes des produits au temps "now + monthsInFuture" ; les valeurs absentes valent 0
+     */
+    public static ProductColumns of(List<Produit> produits, LocalDateTime now, double monthsInFuture) {
+        ProductColumns columns = new ProductColumns(produits.size());
+        for (int i = 0; i < columns.size; i++) {
+            Produit produit = produits.get(i);
+            columns.months[i] = TarificationStrategy.monthsSince(produit.getDateLancement(), now) + monthsInFuture;
+            columns.prixConcurrents[i] = produit.getPrixDesConcurrents() != null ? produit.getPrixDesConcurrents() : 0.0;
+            columns.coutsDeProduction[i] = produit.getCoutDeProduction() != null ? produit.getCoutDeProduction() : 0.0;
+            columns.stocks[i] = produit.getStock() != null ? produit.getStock() : 0.0;
+        }
+        return columns;
+    }
+
+    /**
+     * Prix de tous les produits du lot pour la stratégie donnée
+     */
+    public double[] prices(TarificationStrategy strategy, double prixReference) {
+        double[] out = new double[size];
+        strategy.prices(months, prixConcurrents, coutsDeProduction, prixReference, out, size);
+        return out;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double months(int i) {
+        return months[i];
+    }
+
+    public double coutDeProduction(int i) {
+        return coutsDeProduction[i];
+    }
+
+    public double stock(int i) {
+        return stocks[i];
+    }
+}
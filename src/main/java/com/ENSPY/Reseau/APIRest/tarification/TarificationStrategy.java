@@ -0,0 +1,105 @@
+package com.ENSPY.Reseau.APIRest.tarification;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Stratégies de tarification dans le temps. Chaque stratégie expose un noyau scalaire sur des double
+ * primitifs et des boucles sur tableaux (un lot de produits, ou une trajectoire sur plusieurs mois).
+ * Le prix de référence vaut Double.NaN lorsqu'il n'est pas fourni : la stratégie applique alors sa valeur par défaut.
+ */
+public enum TarificationStrategy {
+
+    /**
+     * Écrémage : P(t) = P_max * e^(-α * t), avec P(t) >= C * 1.2 (marge minimale de 20%)
+     * P_max par défaut : 1.5 * prix des concurrents
+     */
+    ECREMAGE {
+        @Override
+        public double price(double t, double prixConcurrents, double coutDeProduction, double prixReference) {
+            double prixMaximal = Double.isNaN(prixReference) ? prixConcurrents * 1.5 : prixReference;
+            return Math.max(prixMaximal * Math.exp(-0.03 * t), coutDeProduction * 1.2);
+        }
+    },
+
+    /**
+     * Pénétration : P(t) = P_min + β * ln(t + 1), avec β = 0.055 * C et P(t) >= P_min
+     * P_min par défaut : 1.1 * coût de production
+     */
+    PENETRATION {
+        @Override
+        public double price(double t, double prixConcurrents, double coutDeProduction, double prixReference) {
+            double prixMinimal = Double.isNaN(prixReference) ? coutDeProduction * 1.1 : prixReference;
+            double beta = 0.055 * coutDeProduction;
+            return Math.max(prixMinimal + beta * Math.log(t + 1), prixMinimal);
+        }
+    },
+
+    /**
+     * Alignement : P(t) = prix des concurrents + δ(t), avec δ(t) = 0.015 * prix des concurrents * e^(-0.01 * t)
+     * et P(t) >= C * 1.1 (marge minimale de 10%) ; le prix de référence n'est pas utilisé
+     */
+    ALIGNEMENT {
+        @Override
+        public double price(double t, double prixConcurrents, double coutDeProduction, double prixReference) {
+            double delta = 0.015 * prixConcurrents * Math.exp(-0.01 * t);
+            return Math.max(prixConcurrents + delta, coutDeProduction * 1.1);
+        }
+    };
+
+    /**
+     * Prix au temps t (en mois depuis le lancement)
+     */
+    public abstract double price(double t, double prixConcurrents, double coutDeProduction, double prixReference);
+
+    /**
+     * Prix d'un lot de produits, chacun à son propre temps t[i], en une passe
+     */
+    public void prices(double[] t, double[] prixConcurrents, double[] coutsDeProduction, double prixReference,
+                       double[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            out[i] = price(t[i], prixConcurrents[i], coutsDeProduction[i], prixReference);
+        }
+    }
+
+    /**
+     * Trajectoire d'un produit : out[m] = prix au temps t0 + m, pour m = 0..out.length - 1
+     */
+    public void trajectory(double t0, double prixConcurrents, double coutDeProduction, double prixReference,
+                           double[] out) {
+        for (int m = 0; m < out.length; m++) {
+            out[m] = price(t0 + m, prixConcurrents, coutDeProduction, prixReference);
+        }
+    }
+
+    /**
+     * Marge en pourcentage du prix
+     */
+    public static double margin(double price, double coutDeProduction) {
+        return (price - coutDeProduction) / price * 100;
+    }
+
+    /**
+     * Temps écoulé depuis la date de lancement en mois (30 jours = 1 mois) ; 0 sans date de lancement
+     */
+    public static double monthsSince(LocalDateTime launchDate, LocalDateTime now) {
+        if (launchDate == null) {
+            return 0.0;
+        }
+        return ChronoUnit.DAYS.between(launchDate, now) / 30.0;
+    }
+
+    /**
+     * Stratégie correspondant au nom (insensible à la casse) ; ALIGNEMENT pour un nom inconnu
+     */
+    public static TarificationStrategy fromName(String name) {
+        if (name != null) {
+            for (TarificationStrategy strategy : values()) {
+                if (strategy.name().equalsIgnoreCase(name.trim())) {
+                    return strategy;
+                }
+            }
+        }
+        return ALIGNEMENT;
+    }
+}
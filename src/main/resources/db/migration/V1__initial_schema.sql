@@ -58,4 +58,4 @@ CREATE TABLE IF NOT EXISTS tarification_prices (
     calculated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_tarification_price_product FOREIGN KEY (product_id) REFERENCES produits(id) ON DELETE CASCADE,
     CONSTRAINT fk_tarification_price_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
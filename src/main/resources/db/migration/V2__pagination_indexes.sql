@@ -0,0 +1,13 @@
+-- Backfill of updated_at (keyset pagination on updated_at, id requires a non-null value)
+UPDATE produits SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE produits ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE produits ALTER COLUMN updated_at SET NOT NULL;
+
+-- Keyset pagination of a user's products (GET /produit/read)
+CREATE INDEX IF NOT EXISTS idx_produits_user_updated ON produits (user_id, updated_at DESC, id DESC);
+
+-- History pagination and filters (GET /pricing/history, GET /tarification/history)
+CREATE INDEX IF NOT EXISTS idx_optimal_prices_user_calculated ON optimal_prices (user_id, calculated_at DESC);
+CREATE INDEX IF NOT EXISTS idx_optimal_prices_product_calculated ON optimal_prices (product_id, calculated_at DESC);
+CREATE INDEX IF NOT EXISTS idx_tarification_prices_user_calculated ON tarification_prices (user_id, calculated_at DESC);
+CREATE INDEX IF NOT EXISTS idx_tarification_prices_product_calculated ON tarification_prices (product_id, calculated_at DESC);
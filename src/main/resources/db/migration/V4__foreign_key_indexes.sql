@@ -0,0 +1,8 @@
+-- Foreign keys without a leading index: revoked_tokens.user_id (ON DELETE CASCADE from users)
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_user ON revoked_tokens (user_id);
+
+-- Purge of expired revocations
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+-- produits.user_id, optimal_prices.user_id/product_id and tarification_prices.user_id/product_id
+-- are covered by the composite indexes of V2 (leading column)
@@ -0,0 +1,3 @@
+-- Revocations must outlive the user: the tokens of a deleted user stay refused until they expire
+-- (expired rows are removed by the periodic purge)
+ALTER TABLE revoked_tokens DROP CONSTRAINT IF EXISTS fk_revoked_token_user;
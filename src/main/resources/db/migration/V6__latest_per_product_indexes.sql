@@ -0,0 +1,6 @@
+-- History view=latest (SELECT DISTINCT ON (product_id) ... WHERE user_id = $1
+-- ORDER BY product_id, calculated_at DESC, id DESC): read in index order instead of sorting the user's whole history
+CREATE INDEX IF NOT EXISTS idx_optimal_prices_user_product_latest
+    ON optimal_prices (user_id, product_id, calculated_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_tarification_prices_user_product_latest
+    ON tarification_prices (user_id, product_id, calculated_at DESC, id DESC);
@@ -0,0 +1,154 @@
+package com.ENSPY.Reseau.APIRest;
+
+import com.ENSPY.Reseau.APIRest.model.OptimalPriceResult;
+import com.ENSPY.Reseau.APIRest.model.Produit;
+import com.ENSPY.Reseau.APIRest.model.User;
+import com.ENSPY.Reseau.APIRest.repository.OptimalPriceResultRepository;
+import com.ENSPY.Reseau.APIRest.repository.ProduitRepository;
+import com.ENSPY.Reseau.APIRest.repository.RevokedTokenRepository;
+import com.ENSPY.Reseau.APIRest.repository.TarificationRepository;
+import com.ENSPY.Reseau.APIRest.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.MockReset;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Parcours connexion, calcul du prix optimal et lecture des produits à travers le serveur Netty complet
+ * (filtres de sécurité, JWT, routes), avec des dépôts simulés et le modèle local d'exemple : ni base ni service ML.
+ * Avec mvn -Pblockhound test, BlockHound est installé au démarrage du contexte : tout appel bloquant
+ * sur une boucle d'événements fait échouer la requête, donc le test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.r2dbc.url=r2dbc:postgresql://localhost:5432/pricing_test",
+        "schema.migrations.enabled=false",
+        "pricing.model.type=local",
+        "pricing.model.local.path=classpath:models/pricing-model.json",
+        "pricing.model.local.fallback-to-remote=false",
+        "file.upload-dir=target/uploads/profile-pictures"
+})
+class RequestFlowIntegrationTest {
+
+    private static final String EMAIL = "marie@example.com";
+    private static final String PASSWORD = "motDePasse123";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private ProduitRepository produitRepository;
+
+    @MockBean
+    private OptimalPriceResultRepository optimalPriceResultRepository;
+
+    @MockBean
+    private TarificationRepository tarificationRepository;
+
+    // Interrogé dès le démarrage (rafraîchissement des révocations) : simulé avant ApplicationReadyEvent
+    @MockBean(reset = MockReset.NONE)
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final User user = new User();
+    private final Produit produit = new Produit();
+
+    @TestConfiguration
+    static class RevocationStub {
+        RevocationStub(RevokedTokenRepository revokedTokenRepository) {
+            given(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(), any())).willReturn(Flux.empty());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        user.setId(UUID.randomUUID());
+        user.setEmail(EMAIL);
+        user.setPassword(new BCryptPasswordEncoder(10).encode(PASSWORD));
+        user.setFirstName("Marie");
+        user.setLastName("Nkoa");
+
+        LocalDateTime launch = LocalDateTime.now().minusMonths(8);
+        produit.setId(UUID.randomUUID());
+        produit.setName("Smartphone X200");
+        produit.setDateLancement(launch);
+        produit.setPrixDesConcurrents(100.0);
+        produit.setCoutDeProduction(60.0);
+        produit.setDesiredMargin(20.0);
+        produit.setCategory("Electronique");
+        produit.setType("Téléphone");
+        produit.setStock(120);
+        produit.setUserId(user.getId());
+        produit.setCreatedAt(launch);
+        produit.setUpdatedAt(launch);
+
+        given(userRepository.findByEmail(EMAIL)).willReturn(Mono.just(user));
+        given(produitRepository.findById(produit.getId())).willReturn(Mono.just(produit));
+        given(produitRepository.findPage(eq(user.getId()), isNull(), isNull(), isNull(), isNull(), anyInt(), any()))
+                .willReturn(Flux.just(produit));
+        given(optimalPriceResultRepository.save(any(OptimalPriceResult.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void loginPriceAndReadProducts() {
+        String token = login();
+
+        webTestClient.post().uri("/pricing/{productId}", produit.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.productId").isEqualTo(produit.getId().toString())
+                .jsonPath("$.optimalPrice").isNumber();
+
+        webTestClient.get().uri("/produit/read")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(produit.getId().toString());
+    }
+
+    @Test
+    void wrongPasswordIsRejected() {
+        webTestClient.post().uri("/auth/login")
+                .bodyValue(Map.of("email", EMAIL, "password", "mauvais"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @SuppressWarnings("unchecked")
+    private String login() {
+        Map<String, Object> response = webTestClient.post().uri("/auth/login")
+                .bodyValue(Map.of("email", EMAIL, "password", PASSWORD))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(((Map<String, Object>) response.get("user")).get("id")).isEqualTo(user.getId().toString());
+        return (String) response.get("token");
+    }
+}
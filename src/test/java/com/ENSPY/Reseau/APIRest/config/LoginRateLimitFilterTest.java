@@ -0,0 +1,60 @@
+package com.ENSPY.Reseau.APIRest.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimitFilterTest {
+
+    private static final String PROXY = "10.12.0.7";
+
+    // 2 tentatives par IP, quota par email hors d'atteinte ; le réseau privé du proxy est de confiance
+    private final LoginRateLimitFilter filter = new LoginRateLimitFilter(new ObjectMapper(), new SimpleMeterRegistry(),
+            true, 2, 100, Duration.ofMinutes(1), Duration.ofSeconds(1), 4096, new String[]{"10.0.0.0/8"});
+
+    @Test
+    void spoofedLeftmostForwardedForDoesNotResetTheQuota() {
+        // Le client invente une nouvelle adresse à chaque tentative ; le proxy ajoute la vraie à droite
+        assertThat(login(PROXY, "1.1.1.1, 203.0.113.9")).isNull();
+        assertThat(login(PROXY, "2.2.2.2, 203.0.113.9")).isNull();
+        assertThat(login(PROXY, "3.3.3.3, 203.0.113.9")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        // Autre client derrière le même proxy : quota distinct
+        assertThat(login(PROXY, "203.0.113.10")).isNull();
+    }
+
+    @Test
+    void forwardedForFromUntrustedPeerIsIgnored() {
+        assertThat(login("198.51.100.4", "1.1.1.1")).isNull();
+        assertThat(login("198.51.100.4", "2.2.2.2")).isNull();
+        assertThat(login("198.51.100.4", "3.3.3.3")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void trustedHopsAreSkippedFromTheRight() {
+        assertThat(login(PROXY, "9.9.9.9, 203.0.113.20, 10.1.2.3")).isNull();
+        assertThat(login(PROXY, "8.8.8.8, 203.0.113.20, 10.4.5.6")).isNull();
+        assertThat(login(PROXY, "203.0.113.20")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    // Statut posé par le filtre, null si la requête a été transmise à la chaîne
+    private HttpStatus login(String peer, String forwardedFor) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/auth/login")
+                .remoteAddress(new InetSocketAddress(peer, 443))
+                .header("X-Forwarded-For", forwardedFor)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"email\":\"marie@example.com\",\"password\":\"x\"}"));
+        filter.filter(exchange, chained -> Mono.empty()).block();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+}
@@ -0,0 +1,130 @@
+package com.ENSPY.Reseau.APIRest.ml;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LocalPricingModelTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void linearModel() throws IOException {
+        LocalPricingModel model = model("""
+                {"domaines": ["Alimentation", "Electronique"],
+                 "lineaire": {"intercept": 2.0, "coefficients": [10.0, 0.5, 1.0, 100.0]}}
+                """, null);
+
+        // 2 + 10 * 1 + 0.5 * 100 + 1 * 60 + 100 * 0.2
+        StepVerifier.create(model.predict(PredictionRequest.of("Electronique", 100.0, 60.0, 0.2)))
+                .assertNext(price -> assertThat(price).isCloseTo(142.0, within(1e-9)))
+                .verifyComplete();
+    }
+
+    @Test
+    void treeEnsembleSumAndAverage() throws IOException {
+        String trees = """
+                "arbres": [
+                  {"feature": [1, -1, -1], "seuil": [50.0, 0, 0], "gauche": [1, -1, -1], "droite": [2, -1, -1], "valeur": [0, 40.0, 60.0]},
+                  {"feature": [3, -1, -1], "seuil": [0.3, 0, 0], "gauche": [1, -1, -1], "droite": [2, -1, -1], "valeur": [0, 10.0, 20.0]}
+                ]""";
+        LocalPricingModel sum = model("{\"domaines\": [\"Alimentation\"], \"ensemble\": {\"base\": 5.0, "
+                + "\"agregation\": \"somme\", " + trees + "}}", null);
+        LocalPricingModel average = model("{\"domaines\": [\"Alimentation\"], \"ensemble\": {\"base\": 5.0, "
+                + "\"agregation\": \"moyenne\", " + trees + "}}", null);
+
+        // prix concurrent 30 <= 50 : 40 ; marge 0.5 > 0.3 : 20
+        assertThat(sum.evaluate(0, 30.0, 10.0, 0.5)).isCloseTo(65.0, within(1e-9));
+        assertThat(average.evaluate(0, 30.0, 10.0, 0.5)).isCloseTo(35.0, within(1e-9));
+        // prix concurrent 80 > 50 : 60 ; marge 0.3 <= 0.3 : 10
+        assertThat(sum.evaluate(0, 80.0, 10.0, 0.3)).isCloseTo(75.0, within(1e-9));
+    }
+
+    @Test
+    void sampleModelAddsLinearPartAndTrees() throws IOException {
+        LocalPricingModel model = LocalPricingModel.load(new ClassPathResource("models/pricing-model.json"), objectMapper, null);
+
+        // Linéaire : 1.2 + 0.8 * 100 + 0.4 * 60 + 12.5 * 0.2 = 107.7 ; arbres : 0.5 + 6 - 2
+        StepVerifier.create(model.predict(PredictionRequest.of("Electronique", 100.0, 60.0, 0.2)))
+                .assertNext(price -> assertThat(price).isCloseTo(112.2, within(1e-9)))
+                .verifyComplete();
+        StepVerifier.create(model.fetchDomains())
+                .expectNext(Set.of("Alimentation", "Electronique"))
+                .verifyComplete();
+    }
+
+    @Test
+    void unknownDomainWithoutFallbackFails() throws IOException {
+        LocalPricingModel model = LocalPricingModel.load(new ClassPathResource("models/pricing-model.json"), objectMapper, null);
+
+        StepVerifier.create(model.predict(PredictionRequest.of("Textile", 100.0, 60.0, 0.2)))
+                .expectErrorMessage("Domaine non reconnu par le modèle local: Textile")
+                .verify();
+    }
+
+    @Test
+    void unknownDomainFallsBackToRemote() throws IOException {
+        PricingModel remote = new StubModel(Mono.just(Set.of("Textile")), Mono.just(99.0));
+        LocalPricingModel model = LocalPricingModel.load(new ClassPathResource("models/pricing-model.json"), objectMapper, remote);
+
+        StepVerifier.create(model.predict(PredictionRequest.of("Textile", 100.0, 60.0, 0.2)))
+                .expectNext(99.0)
+                .verifyComplete();
+        // Domaine connu localement : le modèle distant n'est pas interrogé
+        StepVerifier.create(model.predict(PredictionRequest.of("Electronique", 100.0, 60.0, 0.2)))
+                .assertNext(price -> assertThat(price).isCloseTo(112.2, within(1e-9)))
+                .verifyComplete();
+        StepVerifier.create(model.fetchDomains())
+                .expectNext(Set.of("Alimentation", "Electronique", "Textile"))
+                .verifyComplete();
+    }
+
+    @Test
+    void unavailableRemoteKeepsLocalDomains() throws IOException {
+        PricingModel remote = new StubModel(Mono.error(new RuntimeException("Service ML indisponible")), Mono.empty());
+        LocalPricingModel model = LocalPricingModel.load(new ClassPathResource("models/pricing-model.json"), objectMapper, remote);
+
+        StepVerifier.create(model.fetchDomains())
+                .expectNext(Set.of("Alimentation", "Electronique"))
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidModelIsRejected() {
+        assertThatThrownBy(() -> model("{\"domaines\": [\"Alimentation\"]}", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> model("{\"domaines\": [\"Alimentation\"], \"lineaire\": {\"coefficients\": [1.0]}}", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> model("{\"domaines\": [\"Alimentation\"], \"ensemble\": {\"arbres\": [{\"feature\": [1, -1], "
+                + "\"seuil\": [1.0, 0], \"gauche\": [0, -1], \"droite\": [1, -1], \"valeur\": [0, 1.0]}]}}", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LocalPricingModel model(String json, PricingModel fallback) throws IOException {
+        return LocalPricingModel.load(new ByteArrayResource(json.getBytes(StandardCharsets.UTF_8)), objectMapper, fallback);
+    }
+
+    private record StubModel(Mono<Set<String>> domains, Mono<Double> price) implements PricingModel {
+
+        @Override
+        public Mono<Set<String>> fetchDomains() {
+            return domains;
+        }
+
+        @Override
+        public Mono<Double> predict(PredictionRequest request) {
+            return price;
+        }
+    }
+}